@@ -0,0 +1,94 @@
+package com.isak.main;
+
+import com.badlogic.gdx.math.Circle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CollisionBenchmark {
+
+    @Param({"5", "100", "1000", "10000", "100000"})
+    public int enemyCount;
+
+    @Param({"true", "false"})
+    public boolean swarmMode;
+
+    EnemySpawner enemySpawner;
+    Circle playerCollision;
+    CollisionMask playerMask;
+    CollisionMask enemyMask;
+
+    @Setup
+    public void setup() {
+        enemySpawner = EnemySpawnerBenchmark.createSpawner(enemyCount, swarmMode);
+        GameConfig config = new GameConfig();
+        playerCollision = new Circle(EnemySpawnerBenchmark.WORLD_WIDTH/2f,
+                EnemySpawnerBenchmark.WORLD_HEIGHT/2f, config.playerRadius*0.8f);
+        //A 16x16 disc, solid enough that most circle hits need a few rows to decide
+        long[] disc = new long[16];
+        for (int y = 0; y < 16; y++){
+            for (int x = 0; x < 16; x++){
+                if((x - 7.5f) * (x - 7.5f) + (y - 7.5f) * (y - 7.5f) < 64) disc[y] |= 1L << x;
+            }
+        }
+        float cellSize = CollisionMask.getCellSize(config.playerRadius * 2);
+        playerMask = new CollisionMask(disc, 16, 16, config.playerRadius * 2, cellSize);
+        enemyMask = new CollisionMask(disc, 16, 16, config.enemyRadius * 2, cellSize);
+    }
+
+    /**
+     * The player/enemy test done by GameWorld every tick (formerly FirstGame.checkPlayerEnemyCollision)
+     * including the spatial hash rebuild
+     */
+    @Benchmark
+    public int checkPlayerEnemyCollision() {
+        enemySpawner.updateEnemyCollisions();
+        return enemySpawner.findEnemyOverlapping(playerCollision, null, 0);
+    }
+
+    /**
+     * The swept player/enemy test done by GameWorld every tick with sweptCollision on, the
+     * player moving a reference tick at top speed
+     */
+    @Benchmark
+    public int checkPlayerEnemySweptCollision() {
+        enemySpawner.updateEnemyCollisions();
+        return enemySpawner.findEnemyHit(playerCollision.x - 20, playerCollision.y - 20, playerCollision,
+                null, 0);
+    }
+
+    /**
+     * The swept test with the sprite masks checked behind every circle hit, like GameWorld with
+     * pixelCollision on
+     */
+    @Benchmark
+    public int checkPlayerEnemyPixelCollision() {
+        enemySpawner.setEnemyMask(enemyMask);
+        enemySpawner.updateEnemyCollisions();
+        int hit = enemySpawner.findEnemyHit(playerCollision.x - 20, playerCollision.y - 20,
+                playerCollision, playerMask, 30);
+        enemySpawner.setEnemyMask(null);
+        return hit;
+    }
+
+    /**
+     * Enemy-enemy separation and bouncing on top of the broadphase rebuild
+     */
+    @Benchmark
+    public int enemyEnemyCollision() {
+        enemySpawner.setEnemyCollisions(true);
+        enemySpawner.updateEnemyCollisions();
+        enemySpawner.setEnemyCollisions(false);
+        return enemySpawner.getCurrentNumberEnemies();
+    }
+}
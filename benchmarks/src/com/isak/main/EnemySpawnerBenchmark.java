@@ -0,0 +1,96 @@
+package com.isak.main;
+
+import com.badlogic.gdx.math.RandomXS128;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EnemySpawnerBenchmark {
+
+    static final float WORLD_WIDTH = 1600;
+    static final float WORLD_HEIGHT = 900;
+    static final float DELTA = FixedTimestep.REFERENCE_TICK;
+
+    @Param({"5", "100", "1000", "10000", "100000"})
+    public int enemyCount;
+
+    @Param({"true", "false"})
+    public boolean swarmMode;
+
+    EnemySpawner enemySpawner;
+
+    /**
+     * Create a headless spawner filled with enemyCount enemies that have been flying for a
+     * second, so they are spread over the world like in a running game
+     */
+    @Setup
+    public void setup() {
+        enemySpawner = createSpawner(enemyCount, swarmMode);
+    }
+
+    static EnemySpawner createSpawner(int enemyCount, boolean swarmMode) {
+        return createSpawner(enemyCount, swarmMode, 0, 0);
+    }
+
+    static EnemySpawner createSpawner(int enemyCount, boolean swarmMode, float seekShare,
+                                      float flockShare) {
+        GameConfig config = new GameConfig();
+        EnemySpawner enemySpawner = new EnemySpawner(config.enemyStartSpeed,
+                config.enemySpeedIncrease, config.enemyMaxSpeed, enemyCount, config.enemyRadius,
+                config.enemyImagePath, null);
+        enemySpawner.setWorldSize(WORLD_WIDTH, WORLD_HEIGHT);
+        enemySpawner.setRandom(new RandomXS128(1));
+        enemySpawner.setSwarmMode(swarmMode);
+        enemySpawner.setBehaviourMix(seekShare, flockShare);
+        for (int tick = 0; tick < 60; tick++){
+            refill(enemySpawner);
+            enemySpawner.moveEnemies(DELTA);
+            enemySpawner.checkEnemyDespawn();
+        }
+        refill(enemySpawner);
+        return enemySpawner;
+    }
+
+    static void refill(EnemySpawner enemySpawner) {
+        while(enemySpawner.getCurrentNumberEnemies() < enemySpawner.getMaxNumberEnemies()){
+            enemySpawner.spawnEnemy();
+        }
+    }
+
+    @Benchmark
+    public int moveEnemies() {
+        enemySpawner.moveEnemies(DELTA);
+        return enemySpawner.getCurrentNumberEnemies();
+    }
+
+    /**
+     * One tick of despawning enemies that left the world and spawning their replacements
+     */
+    @Benchmark
+    public int checkEnemyDespawnAndRespawn() {
+        enemySpawner.moveEnemies(DELTA);
+        enemySpawner.checkEnemyDespawn();
+        refill(enemySpawner);
+        return enemySpawner.getCurrentNumberEnemies();
+    }
+
+    /**
+     * Despawn everything and spawn enemyCount new enemies, like the first tick after a reset
+     */
+    @Benchmark
+    public int spawnEnemy() {
+        enemySpawner.resetEnemies();
+        refill(enemySpawner);
+        return enemySpawner.getCurrentNumberEnemies();
+    }
+}
@@ -0,0 +1,49 @@
+package com.isak.main;
+
+import com.badlogic.gdx.math.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EntityBenchmark {
+
+    Enemy enemy;
+    Player player;
+    float touchX;
+    float touchY;
+
+    @Setup
+    public void setup() {
+        GameConfig config = new GameConfig();
+        enemy = new Enemy(config.enemyRadius, null);
+        enemy.init(0, 0, 3, 4);
+        player = new Player(new Vector2(EnemySpawnerBenchmark.WORLD_WIDTH/2f,
+                EnemySpawnerBenchmark.WORLD_HEIGHT/2f), config.playerRadius,
+                config.playerAccConstant, config.playerAccFriction, config.playerImagePath, null);
+        player.setWorldSize(EnemySpawnerBenchmark.WORLD_WIDTH, EnemySpawnerBenchmark.WORLD_HEIGHT);
+        touchX = EnemySpawnerBenchmark.WORLD_WIDTH * 0.8f;
+        touchY = EnemySpawnerBenchmark.WORLD_HEIGHT * 0.2f;
+    }
+
+    @Benchmark
+    public Vector2 enemyMovement() {
+        enemy.movement(EnemySpawnerBenchmark.DELTA);
+        return enemy.getEnemyPos();
+    }
+
+    @Benchmark
+    public Vector2 playerMovement() {
+        player.movement(touchX, touchY, true, EnemySpawnerBenchmark.DELTA);
+        player.checkIfHitWall();
+        return player.getPlayerPos();
+    }
+}
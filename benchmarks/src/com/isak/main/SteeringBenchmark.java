@@ -0,0 +1,46 @@
+package com.isak.main;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SteeringBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int enemyCount;
+
+    @Param({"true", "false"})
+    public boolean swarmMode;
+
+    EnemySpawner enemySpawner;
+
+    /**
+     * Create a headless spawner where half the enemies seek and the other half flock, the time
+     * per enemy should stay flat as enemyCount grows because the neighbours are capped
+     */
+    @Setup
+    public void setup() {
+        enemySpawner = EnemySpawnerBenchmark.createSpawner(enemyCount, swarmMode, 0.5f, 0.5f);
+        enemySpawner.updateEnemyCollisions();
+    }
+
+    /**
+     * The batched steering pass done by GameWorld every tick, on a valid spatial hash
+     */
+    @Benchmark
+    public int steerEnemies() {
+        enemySpawner.steerEnemies(EnemySpawnerBenchmark.WORLD_WIDTH/2f,
+                EnemySpawnerBenchmark.WORLD_HEIGHT/2f, EnemySpawnerBenchmark.DELTA);
+        return enemySpawner.getCurrentNumberEnemies();
+    }
+}
@@ -0,0 +1,252 @@
+package com.isak.main;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class BatchSimulator {
+
+    private Array<GameConfig> parameterSets;
+    private int sessionsPerSet;
+    private long baseSeed;
+    private BotInput.Strategy strategy;
+    private float worldWidth;
+    private float worldHeight;
+    private int maxTicks;
+    private float tickLength;
+    private CollisionMaskCache maskCache;
+
+    //Results, one entry per session, session s belongs to parameter set s / sessionsPerSet
+    private int[] scores;
+    private float[] survivalSeconds;
+
+    /**
+     * Constructor for a batch of headless game sessions. Every session gets its own world,
+     * seed and bot, so sessions are independent and can run on any core
+     * @param parameterSets Difficulty settings to compare
+     * @param sessionsPerSet Number of sessions to play for every parameter set
+     * @param baseSeed Seed of the first session, the others are derived from it
+     * @param strategy How the bot plays
+     * @param worldWidth Width of the world in pixels
+     * @param worldHeight Height of the world in pixels
+     * @param maxSessionSeconds Sessions still alive after this long are stopped
+     */
+    public BatchSimulator(Array<GameConfig> parameterSets, int sessionsPerSet, long baseSeed,
+                          BotInput.Strategy strategy, float worldWidth, float worldHeight,
+                          float maxSessionSeconds){
+        this.parameterSets = parameterSets;
+        this.sessionsPerSet = sessionsPerSet;
+        this.baseSeed = baseSeed;
+        this.strategy = strategy;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        tickLength = FixedTimestep.REFERENCE_TICK;
+        maxTicks = (int) (maxSessionSeconds / tickLength);
+    }
+
+    private class SessionRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private static final int THRESHOLD = 32;
+        private final int start;
+        private final int end;
+
+        SessionRange(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if(end - start <= THRESHOLD) {
+                for (int session = start; session < end; session++){
+                    runSession(session);
+                }
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new SessionRange(start, middle), new SessionRange(middle, end));
+        }
+    }
+
+    /**
+     * Play every session, spread over the cores of the pool
+     * @param pool Pool to run the sessions in
+     */
+    public void run(ForkJoinPool pool){
+        int sessions = parameterSets.size * sessionsPerSet;
+        scores = new int[sessions];
+        survivalSeconds = new float[sessions];
+        pool.invoke(new SessionRange(0, sessions));
+    }
+
+    /**
+     * @param maskCache Sprite masks for the pixel collision the game uses, without them every
+     *                  session falls back to circle hits
+     */
+    public void setCollisionMasks(CollisionMaskCache maskCache) {
+        this.maskCache = maskCache;
+    }
+
+    private void runSession(int session){
+        GameConfig config = parameterSets.get(session / sessionsPerSet);
+        BotInput bot = new BotInput(strategy, 4f * config.enemyRadius);
+        //Spread the seeds so neighbouring sessions do not get correlated sequences
+        long seed = baseSeed + session * 0x9E3779B97F4A7C15L;
+        GameWorld world = new GameWorld(worldWidth, worldHeight, config, bot, seed, null);
+        world.setCollisionMasks(maskCache);
+        bot.setWorld(world);
+        world.reset();
+        int ticks = 0;
+        while(world.isPlayerAlive() && ticks < maxTicks){
+            world.step(tickLength);
+            ticks++;
+        }
+        scores[session] = world.getScore();
+        survivalSeconds[session] = ticks * tickLength;
+        world.dispose();
+    }
+
+    /**
+     * Write one CSV row per parameter set with the survival time and score distributions. The
+     * sets are described by their wave curve (first and last speed, first and most enemies) if
+     * the first set has one, otherwise by the speed increase per despawn rule. pixelCollision
+     * says if the hits were pixel accurate, which needs the set to ask for it and the masks
+     * @param writer Where to write the report
+     */
+    public void writeCsv(Writer writer){
+        PrintWriter out = new PrintWriter(writer);
+        boolean waves = parameterSets.first().waves != null;
+        out.println("set," + (waves ? "waveStartSpeed,waveEndSpeed,waveStartEnemies,waveMostEnemies,"
+                : "enemyStartSpeed,enemySpeedIncrease,enemyMaxSpeed,maxNumberEnemies,") +
+                "enemyRadius,playerRadius,pixelCollision,sessions,survivalMean,survivalP10,survivalP50," +
+                "survivalP90,survivalMax,scoreMean,scoreP50,scoreP90,scoreMax");
+        float[] survival = new float[sessionsPerSet];
+        int[] score = new int[sessionsPerSet];
+        for (int set = 0; set < parameterSets.size; set++){
+            GameConfig config = parameterSets.get(set);
+            int first = set * sessionsPerSet;
+            System.arraycopy(survivalSeconds, first, survival, 0, sessionsPerSet);
+            System.arraycopy(scores, first, score, 0, sessionsPerSet);
+            Arrays.sort(survival);
+            Arrays.sort(score);
+            double survivalSum = 0, scoreSum = 0;
+            for (int i = 0; i < sessionsPerSet; i++){
+                survivalSum += survival[i];
+                scoreSum += score[i];
+            }
+            WaveCurve curve = config.waves;
+            String setColumns = waves
+                    ? String.format(Locale.ROOT, "%.3f,%.3f,%d,%d", curve.getPointSpeed(0),
+                            curve.getPointSpeed(curve.getPointCount() - 1), curve.getPointEnemies(0),
+                            curve.getMostEnemies())
+                    : String.format(Locale.ROOT, "%.3f,%.3f,%.3f,%d", config.enemyStartSpeed,
+                            config.enemySpeedIncrease, config.enemyMaxSpeed, config.maxNumberEnemies);
+            out.println(String.format(Locale.ROOT,
+                    "%d,%s,%d,%d,%b,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.1f,%d,%d,%d",
+                    set, setColumns, config.enemyRadius, config.playerRadius,
+                    config.pixelCollision && maskCache != null, sessionsPerSet,
+                    survivalSum / sessionsPerSet, percentile(survival, 0.1f),
+                    percentile(survival, 0.5f), percentile(survival, 0.9f),
+                    survival[sessionsPerSet - 1], scoreSum / sessionsPerSet,
+                    percentile(score, 0.5f), percentile(score, 0.9f), score[sessionsPerSet - 1]));
+        }
+        out.flush();
+    }
+
+    private static float percentile(float[] sorted, float p){
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+    }
+
+    private static int percentile(int[] sorted, float p){
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+    }
+
+    /**
+     * Sweep the difficulty and write a CSV report. With a wave curve, like the game loads, the
+     * enemy counts and speeds of the curve are scaled, without one the speed increase per
+     * despawn constants are swept
+     * @param args [sessions per set] [output file] [seed] [IDLE|WANDER|EVADE]. --waves <file>
+     *             reads the curve from the file, otherwise from waves.json in the working
+     *             directory if it is there, --no-waves sweeps without a curve. --masks <file>
+     *             reads the sprite masks from the file, otherwise from sprites.masks in the
+     *             working directory if it is there, without masks pixelCollision is turned off
+     */
+    public static void main(String[] args) throws IOException {
+        Array<String> positional = new Array<>();
+        File wavesFile = new File("waves.json");
+        File masks = new File("sprites.masks");
+        for (int i = 0; i < args.length; i++){
+            if(args[i].equals("--waves") && i + 1 < args.length) wavesFile = new File(args[++i]);
+            else if(args[i].equals("--masks") && i + 1 < args.length) masks = new File(args[++i]);
+            else if(args[i].equals("--no-waves")) wavesFile = null;
+            else positional.add(args[i]);
+        }
+        int sessionsPerSet = positional.size > 0 ? Integer.parseInt(positional.get(0)) : 1000;
+        String outputPath = positional.size > 1 ? positional.get(1) : "simulation.csv";
+        long seed = positional.size > 2 ? Long.parseLong(positional.get(2)) : 1;
+        BotInput.Strategy strategy = positional.size > 3 ? BotInput.Strategy.valueOf(positional.get(3))
+                : BotInput.Strategy.EVADE;
+
+        Array<GameConfig> parameterSets = new Array<>();
+        if(wavesFile != null && wavesFile.exists()) {
+            WaveCurve waves = WaveCurve.load(new FileHandle(wavesFile));
+            float[] speedScales = {0.8f, 0.9f, 1f, 1.1f, 1.2f};
+            float[] enemyScales = {0.5f, 1f, 1.5f};
+            for(float speedScale : speedScales){
+                for(float enemyScale : enemyScales){
+                    GameConfig config = new GameConfig();
+                    config.waves = waves.scaled(enemyScale, speedScale);
+                    //Like FirstGame, the curve can ask for more enemies than the default
+                    config.maxNumberEnemies = Math.max(config.maxNumberEnemies, config.waves.getMostEnemies());
+                    parameterSets.add(config);
+                }
+            }
+        } else {
+            float[] startSpeeds = {3f, 4f, 5f};
+            float[] speedIncreases = {0.05f, 0.1f, 0.2f};
+            int[] enemyCounts = {5, 10, 20};
+            for(float startSpeed : startSpeeds){
+                for(float speedIncrease : speedIncreases){
+                    for(int enemyCount : enemyCounts){
+                        GameConfig config = new GameConfig();
+                        config.enemyStartSpeed = startSpeed;
+                        config.enemySpeedIncrease = speedIncrease;
+                        config.maxNumberEnemies = enemyCount;
+                        parameterSets.add(config);
+                    }
+                }
+            }
+        }
+        if(!masks.exists()) {
+            //Say so in the config too, so the report does not claim hits the sessions did not test
+            System.out.println("No " + masks.getPath() + ", the sessions use circle hits without pixel collision");
+            for(GameConfig config : parameterSets){
+                config.pixelCollision = false;
+            }
+        }
+
+        BatchSimulator simulator = new BatchSimulator(parameterSets, sessionsPerSet, seed,
+                strategy, 1600, 900, 600);
+        if(masks.exists()) simulator.setCollisionMasks(new CollisionMaskCache(new FileHandle(masks)));
+        long start = System.nanoTime();
+        simulator.run(new ForkJoinPool());
+        long millis = (System.nanoTime() - start) / 1000000;
+        System.out.println((parameterSets.size * sessionsPerSet) + " sessions in " + millis + " ms");
+
+        FileWriter writer = new FileWriter(outputPath);
+        try {
+            simulator.writeCsv(writer);
+        } finally {
+            writer.close();
+        }
+    }
+}
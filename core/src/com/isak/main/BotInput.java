@@ -0,0 +1,90 @@
+package com.isak.main;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+
+public class BotInput implements InputSource {
+
+    public enum Strategy {
+        IDLE,   //Never touches the screen
+        WANDER, //Drags the finger along a fixed Lissajous curve
+        EVADE   //Pulls the player away from nearby enemies and back towards the middle
+    }
+
+    private Strategy strategy;
+    private GameWorld world;
+    private float dangerRadius;
+
+    private long lastTick = -1;
+    private float touchX;
+    private float touchY;
+
+    /**
+     * Constructor for a computer player used by headless simulations, call setWorld() before
+     * the world is stepped
+     * @param strategy How the bot moves
+     * @param dangerRadius Enemies closer than this (in pixels) are avoided by EVADE
+     */
+    public BotInput(Strategy strategy, float dangerRadius) {
+        this.strategy = strategy;
+        this.dangerRadius = dangerRadius;
+    }
+
+    public void setWorld(GameWorld world) {
+        this.world = world;
+        lastTick = -1;
+    }
+
+    private void update() {
+        if(world.getTickCount() == lastTick) return;
+        lastTick = world.getTickCount();
+        float centerX = world.getWorldWidth()/2f;
+        float centerY = world.getWorldHeight()/2f;
+        switch (strategy) {
+            case WANDER:
+                float time = lastTick * FixedTimestep.REFERENCE_TICK;
+                touchX = centerX + centerX * 0.6f * MathUtils.sin(time * 0.7f);
+                touchY = centerY + centerY * 0.6f * MathUtils.sin(time * 1.1f);
+                break;
+            case EVADE:
+                Vector2 playerPos = world.getPlayer().getPlayerPos();
+                EnemySpawner enemySpawner = world.getEnemySpawner();
+                //Weak pull towards the middle so the bot does not hug a wall
+                float pushX = (centerX - playerPos.x) * 0.2f;
+                float pushY = (centerY - playerPos.y) * 0.2f;
+                for (int i = 0; i < enemySpawner.getCurrentNumberEnemies(); i++){
+                    float dx = playerPos.x - enemySpawner.getEnemyX(i);
+                    float dy = playerPos.y - enemySpawner.getEnemyY(i);
+                    float dist2 = dx * dx + dy * dy;
+                    if(dist2 > dangerRadius * dangerRadius || dist2 == 0) continue;
+                    //Closer enemies push harder
+                    float weight = dangerRadius * dangerRadius / dist2;
+                    pushX += dx * weight;
+                    pushY += dy * weight;
+                }
+                touchX = playerPos.x + pushX;
+                touchY = playerPos.y + pushY;
+                break;
+            default:
+                touchX = centerX;
+                touchY = centerY;
+        }
+    }
+
+    @Override
+    public boolean isTouched() {
+        return strategy != Strategy.IDLE;
+    }
+
+    @Override
+    public float getTouchX() {
+        update();
+        return touchX;
+    }
+
+    @Override
+    public float getTouchY() {
+        update();
+        return touchY;
+    }
+}
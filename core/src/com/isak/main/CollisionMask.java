@@ -0,0 +1,156 @@
+package com.isak.main;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+public class CollisionMask {
+
+    /**
+     * Number of precomputed rotations, a sprite is tested with the one closest to its rotation
+     */
+    public static final int ROTATIONS = 64;
+    /**
+     * Most cells a mask can have per side, a row of cells is one long
+     */
+    public static final int MAX_CELLS = 64;
+    /**
+     * Smallest cell size in pixels, finer cells cost more rows per test
+     */
+    public static final float MIN_CELL_SIZE = 4;
+
+    //Longest swept test, in samples along the tick
+    private static final int MAX_SAMPLES = 32;
+
+    private int size;
+    private float cellSize;
+    //ROTATIONS square grids of size rows each, bit c of a row is cell column c from the left,
+    //rows go from the bottom
+    private long[] rows;
+
+    /**
+     * Constructor for the collision shape of a sprite drawn at a given size. The solid pixels
+     * are sampled into a grid of square cells centered on the sprite, once for every one of
+     * ROTATIONS rotations, so testing two sprites is a few shifts and ANDs of whole rows
+     * @param imageRows One long per image row from the bottom, bit x set where pixel x is solid
+     * @param imageWidth Width of the image in pixels, at most 64
+     * @param imageHeight Height of the image in pixels
+     * @param spriteSize Width and height the sprite is drawn with in world pixels
+     * @param cellSize Size of a cell in world pixels, masks tested against each other must use
+     *                 the same, see getCellSize()
+     */
+    public CollisionMask(long[] imageRows, int imageWidth, int imageHeight, float spriteSize,
+                         float cellSize){
+        this.cellSize = cellSize;
+        //Big enough for the sprite's diagonal, so every rotation fits
+        size = (int) Math.ceil(spriteSize * 1.4143f / cellSize);
+        if(size > MAX_CELLS) throw new GdxRuntimeException("Cells too small for a " + spriteSize + " pixel sprite");
+        rows = new long[ROTATIONS * size];
+        float half = spriteSize / 2;
+        for (int rotation = 0; rotation < ROTATIONS; rotation++){
+            float cos = MathUtils.cosDeg(rotation * 360f / ROTATIONS);
+            float sin = MathUtils.sinDeg(rotation * 360f / ROTATIONS);
+            for (int row = 0; row < size; row++){
+                float offsetY = (row + 0.5f - size / 2f) * cellSize;
+                long bits = 0;
+                for (int column = 0; column < size; column++){
+                    float offsetX = (column + 0.5f - size / 2f) * cellSize;
+                    //Turn the cell center back into the unrotated sprite to find its pixel
+                    float localX = cos * offsetX + sin * offsetY + half;
+                    float localY = -sin * offsetX + cos * offsetY + half;
+                    if(localX < 0 || localY < 0 || localX >= spriteSize || localY >= spriteSize) continue;
+                    int x = (int) (localX / spriteSize * imageWidth);
+                    int y = (int) (localY / spriteSize * imageHeight);
+                    if((imageRows[y] & 1L << x) != 0) bits |= 1L << column;
+                }
+                rows[rotation * size + row] = bits;
+            }
+        }
+    }
+
+    /**
+     * Test if this sprite and another overlap, positions are rounded to whole cells
+     * @param x X position of the center of this sprite
+     * @param y Y position of the center of this sprite
+     * @param rotation Rotation of this sprite in degrees
+     * @param other Mask of the other sprite
+     * @param otherX X position of the center of the other sprite
+     * @param otherY Y position of the center of the other sprite
+     * @param otherRotation Rotation of the other sprite in degrees
+     * @return True if a solid cell of one lies on a solid cell of the other
+     */
+    public boolean overlaps(float x, float y, float rotation, CollisionMask other,
+                            float otherX, float otherY, float otherRotation){
+        //Where the corner of the other grid is in cells of this grid
+        int dx = MathUtils.round((otherX - x) / cellSize + (size - other.size) / 2f);
+        int dy = MathUtils.round((otherY - y) / cellSize + (size - other.size) / 2f);
+        if(dx >= size || dx <= -other.size) return false;
+        int offset = getRotationIndex(rotation) * size;
+        int otherOffset = other.getRotationIndex(otherRotation) * other.size - dy;
+        int to = Math.min(size, dy + other.size);
+        for (int row = Math.max(0, dy); row < to; row++){
+            long otherRow = other.rows[otherOffset + row];
+            if((rows[offset + row] & (dx >= 0 ? otherRow << dx : otherRow >>> -dx)) != 0) return true;
+        }
+        return false;
+    }
+
+    private int getRotationIndex(float rotation){
+        int index = MathUtils.round(rotation * ROTATIONS / 360f) % ROTATIONS;
+        return index < 0 ? index + ROTATIONS : index;
+    }
+
+    /**
+     * Find when two sprites moving in a straight line first overlap during a tick, after the
+     * circle test found they get close. The motion from a starting time to the end of the tick
+     * is sampled about once per cell, with the rotations they end the tick with
+     * @param a Mask of sprite a
+     * @param aPrevX X position of a at the start of the tick
+     * @param aPrevY Y position of a at the start of the tick
+     * @param aX X position of a at the end of the tick
+     * @param aY Y position of a at the end of the tick
+     * @param aRotation Rotation of a in degrees
+     * @param b Mask of sprite b
+     * @param bPrevX X position of b at the start of the tick
+     * @param bPrevY Y position of b at the start of the tick
+     * @param bX X position of b at the end of the tick
+     * @param bY Y position of b at the end of the tick
+     * @param bRotation Rotation of b in degrees
+     * @param from Time to start at, like the time of impact of the circles
+     * @return Time of impact from 0 (start of the tick) to 1 (end of the tick), or -1 if the
+     *         sprites do not overlap during the rest of the tick
+     */
+    public static float timeOfImpact(CollisionMask a, float aPrevX, float aPrevY, float aX, float aY,
+                                     float aRotation, CollisionMask b, float bPrevX, float bPrevY,
+                                     float bX, float bY, float bRotation, float from){
+        float moveX = (aX - aPrevX) - (bX - bPrevX), moveY = (aY - aPrevY) - (bY - bPrevY);
+        float distance = (float) Math.sqrt(moveX * moveX + moveY * moveY) * (1 - from);
+        int samples = Math.max(1, Math.min(MAX_SAMPLES, (int) Math.ceil(distance / a.cellSize)));
+        for (int sample = 0; sample <= samples; sample++){
+            float t = sample == samples ? 1 : from + (1 - from) * sample / samples;
+            if(a.overlaps(aPrevX + (aX - aPrevX) * t, aPrevY + (aY - aPrevY) * t, aRotation, b,
+                    bPrevX + (bX - bPrevX) * t, bPrevY + (bY - bPrevY) * t, bRotation)) return t;
+        }
+        return -1;
+    }
+
+    /**
+     * The cell size to use for masks of sprites up to a size, the smallest that still fits the
+     * largest sprite into MAX_CELLS cells
+     * @param largestSpriteSize Width of the largest sprite in world pixels
+     * @return Cell size in world pixels
+     */
+    public static float getCellSize(float largestSpriteSize){
+        return Math.max(MIN_CELL_SIZE, (float) Math.ceil(largestSpriteSize * 1.4143f / MAX_CELLS));
+    }
+
+    /**
+     * @return Number of cells per side
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+}
@@ -0,0 +1,84 @@
+package com.isak.main;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+public class CollisionMaskCache {
+
+    private static class Image {
+        long[] rows; //From the bottom
+        int width;
+        int height;
+    }
+
+    private ObjectMap<String, Image> images;
+    private ObjectMap<String, CollisionMask> masks;
+
+    /**
+     * Constructor for a cache of sprite collision masks, reads the solid pixels of every image
+     * from a masks file written by the packTextures task. Only plain file reads, so it works
+     * headless without any natives
+     * @param file The .masks file
+     */
+    public CollisionMaskCache(FileHandle file){
+        images = new ObjectMap<>();
+        masks = new ObjectMap<>();
+        BufferedReader reader = file.reader(64);
+        try {
+            String line;
+            while((line = reader.readLine()) != null) {
+                if(line.isEmpty()) continue;
+                String[] parts = line.split(" ");
+                Image image = new Image();
+                image.width = Integer.parseInt(parts[1]);
+                image.height = Integer.parseInt(parts[2]);
+                if(parts.length != 3 + image.height) throw new GdxRuntimeException("Malformed mask " + parts[0]);
+                image.rows = new long[image.height];
+                //The file lists rows from the top like the image, the world's y goes up
+                for (int y = 0; y < image.height; y++){
+                    image.rows[image.height - 1 - y] = Long.parseLong(parts[3 + y], 16);
+                }
+                images.put(parts[0], image);
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new GdxRuntimeException("Could not read " + file, e);
+        } finally {
+            try {
+                reader.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Get the mask of an image drawn at a size, it is built the first time and shared after that.
+     * Synchronized so worlds on several threads, like BatchSimulator's, can share one cache
+     * @param imagePath Image path like in GameConfig, only the file name is used
+     * @param spriteSize Width and height the sprite is drawn with in world pixels
+     * @param cellSize Size of a cell in world pixels, see CollisionMask.getCellSize()
+     * @return The mask, or null if the file has no mask for the image
+     */
+    public synchronized CollisionMask get(String imagePath, float spriteSize, float cellSize){
+        String name = imagePath.substring(imagePath.lastIndexOf('/') + 1);
+        String key = name + ":" + spriteSize + ":" + cellSize;
+        CollisionMask mask = masks.get(key);
+        if(mask == null) {
+            Image image = images.get(name);
+            if(image == null) return null;
+            mask = new CollisionMask(image.rows, image.width, image.height, spriteSize, cellSize);
+            masks.put(key, mask);
+        }
+        return mask;
+    }
+
+    /**
+     * @return Number of masks built so far
+     */
+    public synchronized int getMaskCount() {
+        return masks.size;
+    }
+}
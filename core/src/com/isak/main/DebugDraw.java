@@ -0,0 +1,125 @@
+package com.isak.main;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+
+public class DebugDraw {
+
+    public enum Channel {
+        COLLIDERS,
+        RADII,
+        TOUCH_LINE,
+        SPATIAL_GRID,
+        VELOCITIES
+    }
+
+    private static final Channel[] CHANNELS = Channel.values();
+
+    //One bit per channel, zero means nothing is drawn and the debug layer is never opened
+    private int enabledChannels;
+    private float velocityScale;
+
+    /**
+     * Constructor for the debug drawing, every channel starts disabled. All enabled channels
+     * are submitted to the debug layer of the render pipeline, so they end up in one line pass
+     * @param velocityScale Number of reference ticks the velocity lines show the movement of
+     */
+    public DebugDraw(float velocityScale){
+        this.velocityScale = velocityScale;
+    }
+
+    /**
+     * Submit the shapes of every enabled channel, does nothing when all channels are disabled
+     * @param renderPipeline Pipeline to submit to
+     * @param world World to draw the player, enemies and spatial hash of
+     * @param touchElement Touch position to draw the line from
+     */
+    public void draw(RenderPipeline renderPipeline, GameWorld world, TouchElement touchElement){
+        if(enabledChannels == 0) return;
+        Player player = world.getPlayer();
+        EnemySpawner enemySpawner = world.getEnemySpawner();
+        if(isEnabled(Channel.SPATIAL_GRID)) drawSpatialGrid(renderPipeline, enemySpawner.getSpatialHash());
+        if(isEnabled(Channel.TOUCH_LINE)) {
+            touchElement.drawLineBetweenTouchAndPlayer(renderPipeline, player.getPlayerPos());
+        }
+        if(isEnabled(Channel.COLLIDERS)) {
+            player.drawCollider(renderPipeline);
+            enemySpawner.drawEnemiesColliders(renderPipeline);
+        }
+        if(isEnabled(Channel.RADII)) player.drawRadius(renderPipeline);
+        if(isEnabled(Channel.VELOCITIES)) {
+            player.drawVelocity(renderPipeline, velocityScale);
+            enemySpawner.drawEnemiesVelocities(renderPipeline, velocityScale);
+        }
+    }
+
+    private void drawSpatialGrid(RenderPipeline renderPipeline, SpatialHash spatialHash){
+        int columns = spatialHash.getColumns();
+        int rows = spatialHash.getRows();
+        if(columns == 0 || rows == 0) return;
+        float cellSize = spatialHash.getCellSize();
+        float minX = spatialHash.getOriginX();
+        float minY = spatialHash.getOriginY();
+        float maxX = minX + columns * cellSize;
+        float maxY = minY + rows * cellSize;
+        ShapeRenderer shapeRenderer = renderPipeline.debugShapes();
+        shapeRenderer.setColor(Color.DARK_GRAY);
+        for (int column = 0; column <= columns; column++){
+            float x = minX + column * cellSize;
+            shapeRenderer.line(x, minY, x, maxY);
+        }
+        for (int row = 0; row <= rows; row++){
+            float y = minY + row * cellSize;
+            shapeRenderer.line(minX, y, maxX, y);
+        }
+    }
+
+    /**
+     * Turn a channel on or off
+     * @param channel The channel
+     * @param enabled True to draw it
+     */
+    public void setEnabled(Channel channel, boolean enabled){
+        if(enabled) enabledChannels |= 1 << channel.ordinal();
+        else enabledChannels &= ~(1 << channel.ordinal());
+    }
+
+    /**
+     * Turn a channel on if it is off and off if it is on
+     * @param channel The channel
+     */
+    public void toggle(Channel channel){
+        enabledChannels ^= 1 << channel.ordinal();
+    }
+
+    /**
+     * Turn every channel on or off
+     * @param enabled True to draw them
+     */
+    public void setAllEnabled(boolean enabled){
+        enabledChannels = enabled ? (1 << CHANNELS.length) - 1 : 0;
+    }
+
+    public boolean isEnabled(Channel channel) {
+        return (enabledChannels & 1 << channel.ordinal()) != 0;
+    }
+
+    public boolean isAnyEnabled() {
+        return enabledChannels != 0;
+    }
+
+    /**
+     * @return One bit per channel in the order of Channel, for saving the channels
+     */
+    public int getEnabledChannels() {
+        return enabledChannels;
+    }
+
+    /**
+     * @param enabledChannels One bit per channel in the order of Channel, bits past the last
+     *                        channel are ignored
+     */
+    public void setEnabledChannels(int enabledChannels) {
+        this.enabledChannels = enabledChannels & (1 << CHANNELS.length) - 1;
+    }
+}
@@ -1,88 +1,171 @@
 package com.isak.main;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Circle;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Pool;
 
-public class Enemy {
+public class Enemy implements Pool.Poolable {
 
     private Vector2 enemyPos;
+    private Vector2 enemyPrevPos;
     private Vector2 enemyVel;
-    private Texture enemyTexture;
     private Sprite enemySprite;
     private Circle enemyCollision;
+    private EnemyBehaviour behaviour = EnemyBehaviour.STRAIGHT;
 
     private int enemyRadius;
-    private String enemyImagePath;
-
-    private SpriteBatch batch;
-    private ShapeRenderer shapeRenderer;
 
     /**
-     * Constructor for an enemy
-     * @param pos Starting position in pixels
-     * @param vel Starting velocity
+     * Constructor for an enemy, place it with init() before use so the object can be
+     * recycled by a pool
      * @param radius Radius in pixels
-     * @param imagePath Path to the image
+     * @param region Shared texture region, null when running headless. The enemy does not hold
+     *               a reference in the TextureCache, whoever looked the region up releases it
      */
-    public Enemy(Vector2 pos, Vector2 vel, int radius, String imagePath){
-        this.enemyPos = pos;
-        this.enemyVel = vel;
+    public Enemy(int radius, TextureRegion region){
         this.enemyRadius = radius;
-        this.enemyImagePath = imagePath;
-        batch = new SpriteBatch();
-        shapeRenderer = new ShapeRenderer();
-        setup();
+        setup(region);
     }
 
-    private void setup() {
-        enemyTexture = new Texture(Gdx.files.internal(enemyImagePath));
-        enemySprite = new Sprite(enemyTexture);
+    private void setup(TextureRegion region) {
+        enemyPos = new Vector2();
+        enemyPrevPos = new Vector2();
+        enemyVel = new Vector2();
+        enemySprite = new Sprite();
+        if(region != null) enemySprite.setRegion(region);
         enemySprite.setSize(2* enemyRadius, 2* enemyRadius);
-        enemySprite.setPosition(enemyPos.x - enemyRadius, enemyPos.y - enemyRadius);
         enemySprite.setOrigin(enemyRadius, enemyRadius);
+        enemyCollision = new Circle(0, 0, enemyRadius);
+    }
+
+    /**
+     * (Re)initialise the enemy position, velocity, collision circle and sprite rotation
+     * @param posX Starting x position in pixels
+     * @param posY Starting y position in pixels
+     * @param velX Starting x velocity
+     * @param velY Starting y velocity
+     */
+    public void init(float posX, float posY, float velX, float velY){
+        enemyPos.set(posX, posY);
+        enemyPrevPos.set(enemyPos);
+        enemyVel.set(velX, velY);
+        enemyCollision.setPosition(enemyPos);
+        enemySprite.setPosition(enemyPos.x - enemyRadius, enemyPos.y - enemyRadius);
         float angle = MathUtils.atan2(enemyVel.y, enemyVel.x);
         enemySprite.setRotation(angle/ MathUtils.PI2*360 - 90);
-        enemyCollision = new Circle(enemyPos.x, enemyPos.y, enemyRadius);
     }
 
     /**
-     * Move the enemy position, collision circle and sprite
+     * Clear position, velocity and rotation when the enemy is returned to its pool
      */
-    public void movement(){
-        enemyPos.set(enemyPos.x + enemyVel.x, enemyPos.y + enemyVel.y);
+    @Override
+    public void reset(){
+        enemyPos.setZero();
+        enemyPrevPos.setZero();
+        enemyVel.setZero();
+        enemyCollision.setPosition(0, 0);
+        enemySprite.setRotation(0);
+        behaviour = EnemyBehaviour.STRAIGHT;
+    }
+
+    /**
+     * Move the enemy within the current tick, like when a collision pushes it, the previous
+     * position is kept so interpolation and swept tests still see the whole step
+     * @param posX New x position in pixels
+     * @param posY New y position in pixels
+     * @param velX New x velocity
+     * @param velY New y velocity
+     */
+    public void setMotion(float posX, float posY, float velX, float velY){
+        enemyPos.set(posX, posY);
+        enemyCollision.setPosition(enemyPos);
+        setVelocity(velX, velY);
+    }
+
+    /**
+     * Change the velocity and turn the sprite to match
+     * @param velX New x velocity
+     * @param velY New y velocity
+     */
+    public void setVelocity(float velX, float velY){
+        enemyVel.set(velX, velY);
+        enemySprite.setRotation(MathUtils.atan2(velY, velX) / MathUtils.PI2*360 - 90);
+    }
+
+    /**
+     * Move the enemy position and collision circle one tick
+     * @param delta Tick length in seconds
+     */
+    public void movement(float delta){
+        float stepScale = FixedTimestep.stepScale(delta);
+        enemyPrevPos.set(enemyPos);
+        enemyPos.set(enemyPos.x + enemyVel.x * stepScale, enemyPos.y + enemyVel.y * stepScale);
         enemyCollision.setPosition(enemyPos);
-        enemySprite.setPosition(enemyPos.x - enemyRadius, enemyPos.y - enemyRadius);
     }
 
     /**
-     * Render the enemy sprite using SpriteBatch
+     * Submit the enemy sprite to the sprite layer, placed between the previous and current tick
+     * @param renderPipeline Pipeline to submit to
+     * @param alpha Interpolation between previous (0) and current (1) tick position
      */
-    public void render(){
-        batch.begin();
-        enemySprite.draw(batch);
-        batch.end();
+    public void render(RenderPipeline renderPipeline, float alpha){
+        enemySprite.setPosition(MathUtils.lerp(enemyPrevPos.x, enemyPos.x, alpha) - enemyRadius,
+                MathUtils.lerp(enemyPrevPos.y, enemyPos.y, alpha) - enemyRadius);
+        renderPipeline.draw(enemySprite);
     }
 
-    public void drawCollider(){
-        //Draw enemies colliders
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
+    /**
+     * Submit the enemy collider to the debug layer
+     * @param renderPipeline Pipeline to submit to
+     */
+    public void drawCollider(RenderPipeline renderPipeline){
+        ShapeRenderer shapeRenderer = renderPipeline.debugShapes();
         shapeRenderer.setColor(Color.GREEN);
         shapeRenderer.circle(enemyPos.x, enemyPos.y, enemyRadius);
-        shapeRenderer.end();
+    }
+
+    /**
+     * Submit the velocity as a line from the enemy centre to the debug layer
+     * @param renderPipeline Pipeline to submit to
+     * @param scale Number of reference ticks the line shows the movement of
+     */
+    public void drawVelocity(RenderPipeline renderPipeline, float scale){
+        ShapeRenderer shapeRenderer = renderPipeline.debugShapes();
+        shapeRenderer.setColor(Color.ORANGE);
+        shapeRenderer.line(enemyPos.x, enemyPos.y,
+                enemyPos.x + enemyVel.x * scale, enemyPos.y + enemyVel.y * scale);
     }
 
     public Vector2 getEnemyPos() {
         return enemyPos;
     }
 
+    public Vector2 getEnemyPrevPos() {
+        return enemyPrevPos;
+    }
+
+    public float getRotation() {
+        return enemySprite.getRotation();
+    }
+
+    public Vector2 getEnemyVel() {
+        return enemyVel;
+    }
+
     public Circle getEnemyCollision() {
         return enemyCollision;
     }
+
+    public EnemyBehaviour getBehaviour() {
+        return behaviour;
+    }
+
+    public void setBehaviour(EnemyBehaviour behaviour) {
+        this.behaviour = behaviour;
+    }
 }
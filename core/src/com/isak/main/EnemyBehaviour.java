@@ -0,0 +1,7 @@
+package com.isak.main;
+
+public enum EnemyBehaviour {
+    STRAIGHT, //Keeps the velocity it spawned with
+    SEEK,     //Turns towards the player while it is ahead and keeps away from other enemies
+    FLOCK     //Keeps away from, flies with and stays close to other enemies, drifting towards the player
+}
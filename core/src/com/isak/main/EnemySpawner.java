@@ -1,21 +1,52 @@
 package com.isak.main;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Circle;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.Pool;
+
+import java.util.Random;
 
 public class EnemySpawner {
 
+    //Spawns planned at once by the scheduler
+    private static final int SPAWN_BATCH = 32;
+
     Array<Enemy> enemies;
+    private Pool<Enemy> enemyPool;
+    private int enemiesAllocated;
+
+    //Swarm mode, enemies are stored as parallel arrays instead of Enemy objects
+    private boolean swarmMode;
+    private EnemySwarm swarm;
+    private Enemy swarmView;
+
+    //Broadphase, rebuilt from the swarm (or a mirror of the Enemy objects) every tick
+    private SpatialHash spatialHash;
+    private boolean spatialHashValid;
+    private boolean enemyCollisions;
+    private EnemySwarm collisionMirror;
+    private IntArray candidates;
+    private float[] timeOfImpact = new float[1];
+    private CollisionMask enemyMask;
+
+    //Behaviour mix, the share of spawned enemies that seek and flock, the rest fly straight
+    private float seekShare;
+    private float flockShare;
+    private EnemySteering steering;
+    private boolean spatialHashBoundsValid;
 
-    private float enemyStartSpeed;
-    private float currentEnemySpeed;
-    private float enemySpeedIncrease;
-    private float enemyMaxSpeed;
+    private SpawnScheduler spawnScheduler;
     private int maxNumberEnemies;
     private int enemyRadius;
     private String enemyImagePath;
+    private TextureCache textureCache;
+    //Looked up once on the render thread, pooled enemies may be created on the simulation thread
+    private TextureRegion enemyRegion;
+    private float worldWidth;
+    private float worldHeight;
 
     /**
      * Constructor for a enemy spawner
@@ -25,130 +56,495 @@ public class EnemySpawner {
      * @param maxNumberEnemies The max number of enemies on screen
      * @param enemyRadius Radius in pixels
      * @param enemyImagePath Path to the image
+     * @param textureCache Cache the enemy texture is looked up in once, on the render thread, null
+     *                     when running headless
      */
     public EnemySpawner(float enemyStartSpeed, float enemySpeedIncrease, float enemyMaxSpeed,
-                        int maxNumberEnemies, int enemyRadius, String enemyImagePath){
-        enemies = new Array<>();
-        this.enemyStartSpeed = enemyStartSpeed;
-        currentEnemySpeed = enemyStartSpeed;
-        this.enemySpeedIncrease = enemySpeedIncrease;
-        this.enemyMaxSpeed = enemyMaxSpeed;
+                        int maxNumberEnemies, int enemyRadius, String enemyImagePath,
+                        TextureCache textureCache){
+        this(enemyStartSpeed, enemySpeedIncrease, enemyMaxSpeed, maxNumberEnemies, enemyRadius,
+                enemyImagePath, textureCache, maxNumberEnemies, maxNumberEnemies);
+    }
+
+    /**
+     * Constructor for a enemy spawner with explicit enemy pool limits
+     * @param enemyStartSpeed Speed the enemies start with
+     * @param enemySpeedIncrease The increase in speed
+     * @param enemyMaxSpeed The maximum speed
+     * @param maxNumberEnemies The max number of enemies on screen
+     * @param enemyRadius Radius in pixels
+     * @param enemyImagePath Path to the image
+     * @param textureCache Cache the enemy texture is looked up in once, on the render thread, null
+     *                     when running headless
+     * @param poolPrewarm Number of enemies created up front
+     * @param poolMaxCapacity Max number of despawned enemies kept for reuse
+     */
+    public EnemySpawner(float enemyStartSpeed, float enemySpeedIncrease, float enemyMaxSpeed,
+                        int maxNumberEnemies, int enemyRadius, String enemyImagePath,
+                        TextureCache textureCache, int poolPrewarm, int poolMaxCapacity){
+        enemies = new Array<>(maxNumberEnemies);
         this.maxNumberEnemies = maxNumberEnemies;
         this.enemyRadius = enemyRadius;
         this.enemyImagePath = enemyImagePath;
+        this.textureCache = textureCache;
+        if(textureCache != null) enemyRegion = textureCache.obtain(enemyImagePath);
+        spawnScheduler = new SpawnScheduler(enemyStartSpeed, enemySpeedIncrease, enemyMaxSpeed,
+                maxNumberEnemies, enemyRadius, SPAWN_BATCH);
+        spawnScheduler.setRandom(new RandomXS128());
+        enemyPoolSetup(poolPrewarm, poolMaxCapacity);
+        spatialHash = new SpatialHash(2*enemyRadius);
+        collisionMirror = new EnemySwarm(maxNumberEnemies);
+        candidates = new IntArray(maxNumberEnemies);
+        steering = new EnemySteering();
+    }
+
+    private void enemyPoolSetup(int poolPrewarm, int poolMaxCapacity) {
+        enemyPool = new Pool<Enemy>(Math.max(poolPrewarm, 16), poolMaxCapacity) {
+            @Override
+            protected Enemy newObject() {
+                enemiesAllocated++;
+                return new Enemy(enemyRadius, enemyRegion);
+            }
+        };
+        enemyPool.fill(Math.min(poolPrewarm, poolMaxCapacity));
     }
 
     /**
-     * Spawn a enemy with random position around and outside the screen, with a random velocity
-     * angled towards the middle of the screen with a random change in angle applied
+     * Spawn the enemies the scheduler asks for this tick, at most the spawn budget per tick
+     * @param delta Tick length in seconds
+     * @return Number of enemies spawned
      */
-    public void spawnEnemy() {
-        //#Calcluate Position
-        float enemyStartPosX, enemyStartPosY;
-        //Determine if enemy start above, below, right or left
-        if(MathUtils.random() > 0.5) { //Spawns above or below
-            enemyStartPosX = MathUtils.random() * Gdx.graphics.getWidth();
-            if(MathUtils.random() > 0.5) { //Spawns above
-                enemyStartPosY = Gdx.graphics.getHeight() + 2*enemyRadius;
-            }
-            else { //Spawns below
-                enemyStartPosY = -2*enemyRadius;
-            }
+    public int spawnEnemies(float delta) {
+        int spawns = spawnScheduler.advance(delta, getCurrentNumberEnemies());
+        for (int i = 0; i < spawns; i++){
+            spawnEnemy();
         }
-        else { //Spawns right or left
-            enemyStartPosY = MathUtils.random() * Gdx.graphics.getHeight();
-            if(MathUtils.random() > 0.5) { //Spawns right
-                enemyStartPosX = Gdx.graphics.getWidth() + 2*enemyRadius;
-            }
-            else { //Spawns left
-                enemyStartPosX = -2*enemyRadius;
-            }
-        }
-        Vector2 startPos = new Vector2(enemyStartPosX, enemyStartPosY);
+        return spawns;
+    }
 
-        //#Calculate Velocity
-        //Angle the enemy towards the center
-        float angle = MathUtils.atan2(Gdx.graphics.getHeight()/2f - enemyStartPosY,
-                Gdx.graphics.getWidth()/2f - enemyStartPosX);
-        angle += MathUtils.random(-1f, 1f) * MathUtils.PI/2; // add some randomness
-//		angle += MathUtils.PI/8; // comment above, uncomment for a nice effect
-        float enemyVelX = currentEnemySpeed * MathUtils.cos(angle) + MathUtils.random(-0.5f, 0.5f);
-        float enemyVelY = currentEnemySpeed * MathUtils.sin(angle) + MathUtils.random(-0.5f, 0.5f);
-        Vector2 startVel = new Vector2(enemyVelX, enemyVelY);
+    /**
+     * Spawn a enemy with random position around and outside the screen, with a random velocity
+     * angled towards the middle of the screen with a random change in angle applied. The
+     * position and direction come from the spawns the scheduler planned ahead
+     */
+    public void spawnEnemy() {
+        int spawn = spawnScheduler.nextSpawn();
+        float speed = spawnScheduler.getSpeed();
+        float enemyStartPosX = spawnScheduler.x[spawn];
+        float enemyStartPosY = spawnScheduler.y[spawn];
+        float enemyVelX = speed * spawnScheduler.directionX[spawn] + spawnScheduler.jitterX[spawn];
+        float enemyVelY = speed * spawnScheduler.directionY[spawn] + spawnScheduler.jitterY[spawn];
+        EnemyBehaviour behaviour = spawnScheduler.behaviour[spawn];
 
-        enemies.add(new Enemy(startPos, startVel, enemyRadius, enemyImagePath));
+        spatialHashValid = false;
+        if(swarmMode) {
+            int i = swarm.add(enemyStartPosX, enemyStartPosY, enemyVelX, enemyVelY, enemyRadius);
+            swarm.behaviour[i] = behaviour;
+            return;
+        }
+        Enemy enemy = enemyPool.obtain();
+        enemy.init(enemyStartPosX, enemyStartPosY, enemyVelX, enemyVelY);
+        enemy.setBehaviour(behaviour);
+        enemies.add(enemy);
     }
 
     /**
      * Check if enemies moved outside the screen, if they did despawn them
      */
     public void checkEnemyDespawn(){
+        if(swarmMode) {
+            float margin = 2.01f*enemyRadius;
+            int despawned = swarm.despawnOutside(-margin, -margin,
+                    worldWidth + margin, worldHeight + margin);
+            for (int i = 0; i < despawned; i++){
+                spawnScheduler.enemyDespawned();
+            }
+            return;
+        }
         for (int enemy = enemies.size - 1; enemy >= 0; enemy--){
             //If outside screen => remove enemy
-            if(enemies.get(enemy).getEnemyPos().x > Gdx.graphics.getWidth() + 2.01*enemyRadius ||
+            if(enemies.get(enemy).getEnemyPos().x > worldWidth + 2.01*enemyRadius ||
                     enemies.get(enemy).getEnemyPos().x < -2.01*enemyRadius ||
-                    enemies.get(enemy).getEnemyPos().y > Gdx.graphics.getHeight() + 2.01*enemyRadius ||
+                    enemies.get(enemy).getEnemyPos().y > worldHeight + 2.01*enemyRadius ||
                     enemies.get(enemy).getEnemyPos().y < -2.01*enemyRadius){
                 despawnEnemy(enemy);
-                if(currentEnemySpeed < enemyMaxSpeed) currentEnemySpeed += enemySpeedIncrease;
+                spawnScheduler.enemyDespawned();
             }
         }
     }
 
     /**
-     * Despawn a enemy
+     * Despawn a enemy and return it to the pool
      * @param i Index of the enemy to despawn
      */
     public void despawnEnemy(int i){
-        enemies.removeIndex(i);
+        spatialHashValid = false;
+        if(swarmMode) swarm.swapRemove(i);
+        else enemyPool.free(enemies.removeIndex(i));
     }
 
     /**
      * Despawn all enemies
      */
     public void resetEnemies(){
+        spatialHashValid = false;
+        if(swarm != null) swarm.clear();
         for (int enemy = enemies.size - 1; enemy >= 0; enemy--){
-            despawnEnemy(enemy);
-            currentEnemySpeed = enemyStartSpeed;
+            enemyPool.free(enemies.removeIndex(enemy));
+        }
+        spawnScheduler.reset();
+    }
+
+    /**
+     * Switch between Enemy objects and struct-of-arrays swarm storage, all enemies are
+     * despawned when the mode changes
+     * @param swarmMode True to store enemies in a EnemySwarm
+     */
+    public void setSwarmMode(boolean swarmMode){
+        if(this.swarmMode == swarmMode) return;
+        resetEnemies();
+        this.swarmMode = swarmMode;
+        if(swarmMode && swarm == null) {
+            swarm = new EnemySwarm(maxNumberEnemies);
+            swarmView = new Enemy(enemyRadius, enemyRegion);
         }
     }
 
     /**
-     * Move all enemies
+     * Move all enemies one tick
+     * @param delta Tick length in seconds
      */
-    public void moveEnemies(){
+    public void moveEnemies(float delta){
+        spatialHashValid = false;
+        if(swarmMode) {
+            swarm.move(delta);
+            return;
+        }
         for(Enemy enemy : enemies){
-            enemy.movement();
+            enemy.movement(delta);
+        }
+    }
+
+    /**
+     * Rebuild the spatial hash and, if enemy collisions are on, push overlapping enemies apart
+     * and bounce them off each other. Call once per tick after moveEnemies()
+     */
+    public void updateEnemyCollisions(){
+        EnemySwarm collisionSwarm = rebuildSpatialHash();
+        if(!enemyCollisions) return;
+        collisionSwarm.separate(spatialHash, candidates);
+        if(!swarmMode) {
+            for (int i = 0; i < enemies.size; i++){
+                enemies.get(i).setMotion(collisionMirror.posX[i], collisionMirror.posY[i],
+                        collisionMirror.velX[i], collisionMirror.velY[i]);
+            }
         }
+        rebuildSpatialHash();
     }
 
     /**
-     * Render all enemies
+     * Steer every enemy that seeks or flocks towards its new velocity in one batched pass, see
+     * EnemySwarm.steer(). Call once per tick after updateEnemyCollisions(), the enemies fly the
+     * new velocity from the next moveEnemies() on
+     * @param targetX X position to home in on, the player
+     * @param targetY Y position to home in on, the player
+     * @param delta Tick length in seconds
      */
-    public void renderEnemies(){
+    public void steerEnemies(float targetX, float targetY, float delta){
+        if(seekShare + flockShare <= 0) return;
+        EnemySwarm steeringSwarm = swarmMode ? swarm : collisionMirror;
+        if(!spatialHashValid) steeringSwarm = rebuildSpatialHash();
+        steeringSwarm.steer(targetX, targetY, steering, spatialHash, candidates, delta);
+        if(!swarmMode) {
+            for (int i = 0; i < enemies.size; i++){
+                if(collisionMirror.behaviour[i] == EnemyBehaviour.STRAIGHT) continue;
+                enemies.get(i).setVelocity(collisionMirror.velX[i], collisionMirror.velY[i]);
+            }
+        }
+    }
+
+    private EnemySwarm rebuildSpatialHash(){
+        if(!spatialHashBoundsValid) {
+            float margin = 2.01f*enemyRadius;
+            spatialHash.setBounds(-margin, -margin, worldWidth + margin, worldHeight + margin);
+            spatialHashBoundsValid = true;
+        }
+        EnemySwarm collisionSwarm = swarm;
+        if(!swarmMode) {
+            collisionMirror.clear();
+            for(Enemy enemy : enemies){
+                int i = collisionMirror.add(enemy.getEnemyPos().x, enemy.getEnemyPos().y,
+                        enemy.getEnemyVel().x, enemy.getEnemyVel().y, enemyRadius);
+                collisionMirror.prevX[i] = enemy.getEnemyPrevPos().x;
+                collisionMirror.prevY[i] = enemy.getEnemyPrevPos().y;
+                collisionMirror.behaviour[i] = enemy.getBehaviour();
+            }
+            collisionSwarm = collisionMirror;
+        }
+        collisionSwarm.updateMaxStep();
+        spatialHash.rebuild(collisionSwarm.posX, collisionSwarm.posY, collisionSwarm.size);
+        spatialHashValid = true;
+        return collisionSwarm;
+    }
+
+    /**
+     * Submit all enemies to the sprite layer
+     * @param renderPipeline Pipeline to submit to
+     * @param alpha Interpolation between previous (0) and current (1) tick position
+     */
+    public void renderEnemies(RenderPipeline renderPipeline, float alpha){
+        if(swarmMode) {
+            swarm.render(renderPipeline, enemyRegion, alpha);
+            return;
+        }
+        for(Enemy enemy : enemies){
+            enemy.render(renderPipeline, alpha);
+        }
+    }
+
+    /**
+     * Submit every enemy's collider to the debug layer
+     * @param renderPipeline Pipeline to submit to
+     */
+    public void drawEnemiesColliders(RenderPipeline renderPipeline){
+        if(swarmMode) {
+            swarm.drawColliders(renderPipeline);
+            return;
+        }
         for(Enemy enemy : enemies){
-            enemy.render();
+            enemy.drawCollider(renderPipeline);
         }
     }
 
     /**
-     * Draw every enemy's collider
+     * Submit every enemy's velocity to the debug layer
+     * @param renderPipeline Pipeline to submit to
+     * @param scale Number of reference ticks the lines show the movement of
      */
-    public void drawEnemiesColliders(){
+    public void drawEnemiesVelocities(RenderPipeline renderPipeline, float scale){
+        if(swarmMode) {
+            swarm.drawVelocities(renderPipeline, scale);
+            return;
+        }
         for(Enemy enemy : enemies){
-            enemy.drawCollider();
+            enemy.drawVelocity(renderPipeline, scale);
         }
     }
 
+    /**
+     * Despawn all enemies, drop the pooled enemies and release the enemy texture. Call on the
+     * render thread
+     */
+    public void dispose(){
+        resetEnemies();
+        enemyPool.clear();
+        if(textureCache != null) textureCache.release(enemyImagePath);
+    }
+
+    /**
+     * Find the first enemy overlapping a circle, if a enemy mask is set the sprites are tested
+     * after the circles
+     * @param circle Circle to test against
+     * @param mask Mask of the circle's sprite, null to only test the circles
+     * @param maskRotation Rotation of the circle's sprite in degrees
+     * @return Index of the enemy, or -1 if none overlaps
+     */
+    public int findEnemyOverlapping(Circle circle, CollisionMask mask, float maskRotation){
+        EnemySwarm collisionSwarm = swarmMode ? swarm : collisionMirror;
+        if(!spatialHashValid) collisionSwarm = rebuildSpatialHash();
+        return collisionSwarm.findOverlap(circle.x, circle.y, circle.radius, mask, maskRotation,
+                enemyMask, spatialHash, candidates);
+    }
+
+    /**
+     * Find the enemy a circle moving from a previous position hits first during the tick, the
+     * enemies' own motion since their previous position is taken into account too. If a enemy
+     * mask is set the sprites are tested after the circles
+     * @param prevX Circle x position at the start of the tick
+     * @param prevY Circle y position at the start of the tick
+     * @param circle Circle at the end of the tick
+     * @param mask Mask of the circle's sprite, null to only test the circles
+     * @param maskRotation Rotation of the circle's sprite in degrees
+     * @return Index of the enemy, or -1 if none is hit
+     */
+    public int findEnemyHit(float prevX, float prevY, Circle circle, CollisionMask mask,
+                            float maskRotation){
+        EnemySwarm collisionSwarm = swarmMode ? swarm : collisionMirror;
+        if(!spatialHashValid) collisionSwarm = rebuildSpatialHash();
+        return collisionSwarm.findSweptOverlap(prevX, prevY, circle.x, circle.y, circle.radius,
+                mask, maskRotation, enemyMask, spatialHash, candidates, timeOfImpact);
+    }
+
+    /**
+     * @return Time of impact of the last hit found by findEnemyHit(), from 0 (start of the tick)
+     *         to 1 (end of the tick)
+     */
+    public float getTimeOfImpact() {
+        return timeOfImpact[0];
+    }
+
+    /**
+     * Turn enemy-enemy separation and bouncing on or off
+     * @param enemyCollisions True if enemies should bounce off each other
+     */
+    public void setEnemyCollisions(boolean enemyCollisions) {
+        this.enemyCollisions = enemyCollisions;
+    }
+
+    /**
+     * Test the enemy sprite's solid pixels after the circles when looking for hits
+     * @param enemyMask Mask of the enemy sprite, null to only test the circles
+     */
+    public void setEnemyMask(CollisionMask enemyMask) {
+        this.enemyMask = enemyMask;
+    }
+
+    /**
+     * Set which share of the spawned enemies seek the player and which flock, the rest fly
+     * straight. Enemies already spawned keep their behaviour
+     * @param seekShare Share of SEEK enemies from 0 to 1
+     * @param flockShare Share of FLOCK enemies from 0 to 1, seekShare + flockShare at most 1
+     */
+    public void setBehaviourMix(float seekShare, float flockShare) {
+        this.seekShare = seekShare;
+        this.flockShare = flockShare;
+        spawnScheduler.setBehaviourMix(seekShare, flockShare);
+    }
+
+    /**
+     * @return Weights and limits of the steering behaviours, can be changed at any time
+     */
+    public EnemySteering getSteering() {
+        return steering;
+    }
+
+    /**
+     * Set the size of the area enemies spawn around and fly across
+     * @param worldWidth Width in pixels
+     * @param worldHeight Height in pixels
+     */
+    public void setWorldSize(float worldWidth, float worldHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        spatialHashBoundsValid = false;
+        spawnScheduler.setWorldSize(worldWidth, worldHeight);
+    }
+
+    /**
+     * Set the random generator used for spawn positions and velocities, use a seeded one
+     * for reproducible runs
+     * @param random The random generator
+     */
+    public void setRandom(Random random) {
+        spawnScheduler.setRandom(random);
+    }
+
+    /**
+     * Forget the spawns planned with the random generator, call after reseeding it
+     */
+    public void discardPlannedSpawns() {
+        spawnScheduler.discardPlan();
+    }
+
+    /**
+     * Let the number of enemies and their speed follow a curve over the round instead of the
+     * speed increase per despawn, the number of enemies never goes over the max
+     * @param waves The curve, null for the speed increase per despawn
+     */
+    public void setWaves(WaveCurve waves) {
+        spawnScheduler.setWaves(waves);
+    }
+
+    /**
+     * Spread refilling over ticks, spawnEnemies() spawns at most this many enemies per tick
+     * @param maxSpawnsPerTick Most enemies spawned in one tick, 0 for no limit
+     */
+    public void setMaxSpawnsPerTick(int maxSpawnsPerTick) {
+        spawnScheduler.setMaxSpawnsPerTick(maxSpawnsPerTick);
+    }
+
+    public SpawnScheduler getSpawnScheduler() {
+        return spawnScheduler;
+    }
+
+    public SpatialHash getSpatialHash() {
+        return spatialHash;
+    }
+
     public int getMaxNumberEnemies() {
         return maxNumberEnemies;
     }
 
+    public int getEnemyRadius() {
+        return enemyRadius;
+    }
+
     public int getCurrentNumberEnemies() {
-        return enemies.size;
+        return swarmMode ? swarm.size : enemies.size;
     }
 
+    /**
+     * Get a enemy, in swarm mode this is a single view object that is overwritten with the
+     * data of enemy i on every call, so do not keep it around
+     * @param i Index of the enemy
+     * @return The enemy
+     */
     public Enemy getEnemy(int i){
-        return enemies.get(i);
+        if(!swarmMode) return enemies.get(i);
+        swarmView.init(swarm.posX[i], swarm.posY[i], swarm.velX[i], swarm.velY[i]);
+        return swarmView;
+    }
+
+    /**
+     * Copy the position, previous position and rotation of every enemy into arrays, a bulk copy
+     * in swarm mode
+     * @return Number of enemies copied, the arrays must have room for getCurrentNumberEnemies()
+     */
+    public int copyEnemies(float[] x, float[] y, float[] prevX, float[] prevY, float[] rotation){
+        if(swarmMode) {
+            int size = swarm.size;
+            System.arraycopy(swarm.posX, 0, x, 0, size);
+            System.arraycopy(swarm.posY, 0, y, 0, size);
+            System.arraycopy(swarm.prevX, 0, prevX, 0, size);
+            System.arraycopy(swarm.prevY, 0, prevY, 0, size);
+            System.arraycopy(swarm.rotation, 0, rotation, 0, size);
+            return size;
+        }
+        for (int i = 0; i < enemies.size; i++){
+            Enemy enemy = enemies.get(i);
+            x[i] = enemy.getEnemyPos().x;
+            y[i] = enemy.getEnemyPos().y;
+            prevX[i] = enemy.getEnemyPrevPos().x;
+            prevY[i] = enemy.getEnemyPrevPos().y;
+            rotation[i] = enemy.getRotation();
+        }
+        return enemies.size;
+    }
+
+    public float getEnemyX(int i){
+        return swarmMode ? swarm.posX[i] : enemies.get(i).getEnemyPos().x;
+    }
+
+    public float getEnemyY(int i){
+        return swarmMode ? swarm.posY[i] : enemies.get(i).getEnemyPos().y;
+    }
+
+    public boolean isSwarmMode() {
+        return swarmMode;
+    }
+
+    /**
+     * Number of enemies ever created by the pool, stays the same while spawning in steady state
+     */
+    public int getEnemiesAllocated() {
+        return enemiesAllocated;
+    }
+
+    public int getPoolFree() {
+        return enemyPool.getFree();
+    }
+
+    public int getPoolPeak() {
+        return enemyPool.peak;
     }
 }
@@ -0,0 +1,38 @@
+package com.isak.main;
+
+public class EnemySteering {
+
+    //Neighbour lookup, at most maxCandidates enemies from the spatial hash are looked at and at
+    //most maxNeighbours of them within the radius are used, so every enemy costs a bounded time
+    public float neighbourRadius = 160;
+    public int maxNeighbours = 8;
+    public int maxCandidates = 32;
+
+    //Largest change of velocity per reference tick, lower turns wider
+    public float maxForce = 0.1f;
+
+    //Weights of the steering behaviours
+    public float seekWeight = 1;
+    public float separationWeight = 1.5f;
+    public float alignmentWeight = 0.5f;
+    public float cohesionWeight = 0.4f;
+    public float flockSeekWeight = 0.3f; //Seeking done by FLOCK enemies
+
+    /**
+     * Copy every value from other steering settings
+     * @param steering Settings to copy
+     * @return These settings for chaining
+     */
+    public EnemySteering set(EnemySteering steering){
+        neighbourRadius = steering.neighbourRadius;
+        maxNeighbours = steering.maxNeighbours;
+        maxCandidates = steering.maxCandidates;
+        maxForce = steering.maxForce;
+        seekWeight = steering.seekWeight;
+        separationWeight = steering.separationWeight;
+        alignmentWeight = steering.alignmentWeight;
+        cohesionWeight = steering.cohesionWeight;
+        flockSeekWeight = steering.flockSeekWeight;
+        return this;
+    }
+}
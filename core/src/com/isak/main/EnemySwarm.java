@@ -0,0 +1,437 @@
+package com.isak.main;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+public class EnemySwarm {
+
+    //One entry per enemy, index i in every array belongs to the same enemy
+    float[] posX;
+    float[] posY;
+    float[] prevX;
+    float[] prevY;
+    float[] velX;
+    float[] velY;
+    float[] radius;
+    float[] rotation;
+    EnemyBehaviour[] behaviour;
+    int size;
+    float maxStep; //Longest distance any enemy moved between prev and pos, see updateMaxStep()
+
+    //Scratch for steer(), the steering of every enemy is found before any is applied
+    private float[] steerX;
+    private float[] steerY;
+
+    /**
+     * Constructor for struct-of-arrays enemy storage, enemies are kept in parallel primitive
+     * arrays so the update loops are linear passes without any pointer chasing
+     * @param capacity Number of enemies to make room for up front
+     */
+    public EnemySwarm(int capacity){
+        capacity = Math.max(capacity, 1);
+        posX = new float[capacity];
+        posY = new float[capacity];
+        prevX = new float[capacity];
+        prevY = new float[capacity];
+        velX = new float[capacity];
+        velY = new float[capacity];
+        radius = new float[capacity];
+        rotation = new float[capacity];
+        behaviour = new EnemyBehaviour[capacity];
+        steerX = new float[capacity];
+        steerY = new float[capacity];
+    }
+
+    /**
+     * Add a enemy that flies straight, the sprite rotation is calculated from the velocity
+     * @param x Starting x position in pixels
+     * @param y Starting y position in pixels
+     * @param vx Starting x velocity
+     * @param vy Starting y velocity
+     * @param r Radius in pixels
+     * @return Index of the new enemy
+     */
+    public int add(float x, float y, float vx, float vy, float r){
+        if(size == posX.length) grow(size * 2);
+        posX[size] = x;
+        posY[size] = y;
+        prevX[size] = x;
+        prevY[size] = y;
+        velX[size] = vx;
+        velY[size] = vy;
+        radius[size] = r;
+        rotation[size] = MathUtils.atan2(vy, vx) / MathUtils.PI2 * 360 - 90;
+        behaviour[size] = EnemyBehaviour.STRAIGHT;
+        return size++;
+    }
+
+    /**
+     * Change the velocity of a enemy and turn its sprite to match
+     * @param i Index of the enemy
+     * @param vx New x velocity
+     * @param vy New y velocity
+     */
+    public void setVelocity(int i, float vx, float vy){
+        velX[i] = vx;
+        velY[i] = vy;
+        rotation[i] = MathUtils.atan2(vy, vx) / MathUtils.PI2 * 360 - 90;
+    }
+
+    /**
+     * Remove a enemy by moving the last enemy into its place, does not keep the order
+     * @param i Index of the enemy to remove
+     */
+    public void swapRemove(int i){
+        int last = --size;
+        posX[i] = posX[last];
+        posY[i] = posY[last];
+        prevX[i] = prevX[last];
+        prevY[i] = prevY[last];
+        velX[i] = velX[last];
+        velY[i] = velY[last];
+        radius[i] = radius[last];
+        rotation[i] = rotation[last];
+        behaviour[i] = behaviour[last];
+    }
+
+    /**
+     * Remove all enemies
+     */
+    public void clear(){
+        size = 0;
+        maxStep = 0;
+    }
+
+    /**
+     * Move every enemy one tick along its velocity
+     * @param delta Tick length in seconds
+     */
+    public void move(float delta){
+        float stepScale = FixedTimestep.stepScale(delta);
+        System.arraycopy(posX, 0, prevX, 0, size);
+        System.arraycopy(posY, 0, prevY, 0, size);
+        for (int i = 0; i < size; i++){
+            posX[i] += velX[i] * stepScale;
+            posY[i] += velY[i] * stepScale;
+        }
+    }
+
+    /**
+     * Remove every enemy whose centre is outside the given rectangle
+     * @return Number of removed enemies
+     */
+    public int despawnOutside(float minX, float minY, float maxX, float maxY){
+        int removed = 0;
+        for (int i = size - 1; i >= 0; i--){
+            float x = posX[i], y = posY[i];
+            if(x > maxX || x < minX || y > maxY || y < minY){
+                swapRemove(i);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Submit every enemy to the sprite layer
+     * @param renderPipeline Pipeline to submit to
+     * @param region Region to draw every enemy with
+     * @param alpha Interpolation between previous (0) and current (1) tick position
+     */
+    public void render(RenderPipeline renderPipeline, TextureRegion region, float alpha){
+        for (int i = 0; i < size; i++){
+            float r = radius[i];
+            float x = prevX[i] + (posX[i] - prevX[i]) * alpha;
+            float y = prevY[i] + (posY[i] - prevY[i]) * alpha;
+            renderPipeline.draw(region, x - r, y - r, r, r, 2*r, 2*r, rotation[i]);
+        }
+    }
+
+    /**
+     * Submit every enemy's collider to the debug layer
+     * @param renderPipeline Pipeline to submit to
+     */
+    public void drawColliders(RenderPipeline renderPipeline){
+        ShapeRenderer shapeRenderer = renderPipeline.debugShapes();
+        shapeRenderer.setColor(Color.GREEN);
+        for (int i = 0; i < size; i++){
+            shapeRenderer.circle(posX[i], posY[i], radius[i]);
+        }
+    }
+
+    /**
+     * Submit every enemy's velocity as a line from its centre to the debug layer
+     * @param renderPipeline Pipeline to submit to
+     * @param scale Number of reference ticks the lines show the movement of
+     */
+    public void drawVelocities(RenderPipeline renderPipeline, float scale){
+        ShapeRenderer shapeRenderer = renderPipeline.debugShapes();
+        shapeRenderer.setColor(Color.ORANGE);
+        for (int i = 0; i < size; i++){
+            shapeRenderer.line(posX[i], posY[i], posX[i] + velX[i] * scale, posY[i] + velY[i] * scale);
+        }
+    }
+
+    /**
+     * Find the first enemy overlapping a circle, only testing the enemies in the cells around it
+     * @param x Circle x position
+     * @param y Circle y position
+     * @param r Circle radius
+     * @param spatialHash Spatial hash built from this swarm
+     * @param candidates Scratch array for the candidates
+     * @return Index of the enemy, or -1 if none overlaps
+     */
+    public int findOverlap(float x, float y, float r, SpatialHash spatialHash, IntArray candidates){
+        return findOverlap(x, y, r, null, 0, null, spatialHash, candidates);
+    }
+
+    /**
+     * Find the first enemy overlapping a circle, with the sprite masks tested after the circles
+     * so only solid pixels count
+     * @param x Circle x position
+     * @param y Circle y position
+     * @param r Circle radius
+     * @param mask Mask of the circle's sprite, null to only test the circles
+     * @param maskRotation Rotation of the circle's sprite in degrees
+     * @param enemyMask Mask of the enemy sprite, null to only test the circles
+     * @param spatialHash Spatial hash built from this swarm
+     * @param candidates Scratch array for the candidates
+     * @return Index of the enemy, or -1 if none overlaps
+     */
+    public int findOverlap(float x, float y, float r, CollisionMask mask, float maskRotation,
+                           CollisionMask enemyMask, SpatialHash spatialHash, IntArray candidates){
+        boolean testMasks = mask != null && enemyMask != null;
+        candidates.clear();
+        spatialHash.query(x, y, r + spatialHash.getCellSize() / 2, candidates);
+        for (int k = 0; k < candidates.size; k++){
+            int i = candidates.get(k);
+            float dx = posX[i] - x, dy = posY[i] - y, radiusSum = radius[i] + r;
+            if(dx * dx + dy * dy >= radiusSum * radiusSum) continue;
+            if(!testMasks || mask.overlaps(x, y, maskRotation, enemyMask, posX[i], posY[i], rotation[i])) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Find the enemy a moving circle hits first during the tick, testing the motion of both from
+     * their previous to their current position. Call updateMaxStep() after the enemies moved
+     * @param startX Circle x position at the start of the tick
+     * @param startY Circle y position at the start of the tick
+     * @param x Circle x position at the end of the tick
+     * @param y Circle y position at the end of the tick
+     * @param r Circle radius
+     * @param spatialHash Spatial hash built from this swarm
+     * @param candidates Scratch array for the candidates
+     * @param timeOfImpact Receives the time of impact of the hit at index 0, see SweptCollision
+     * @return Index of the enemy, or -1 if none is hit
+     */
+    public int findSweptOverlap(float startX, float startY, float x, float y, float r,
+                                SpatialHash spatialHash, IntArray candidates, float[] timeOfImpact){
+        return findSweptOverlap(startX, startY, x, y, r, null, 0, null, spatialHash, candidates,
+                timeOfImpact);
+    }
+
+    /**
+     * Find the enemy a moving circle hits first during the tick like findSweptOverlap(), with the
+     * sprite masks tested from the time the circles touch so only solid pixels count
+     * @param startX Circle x position at the start of the tick
+     * @param startY Circle y position at the start of the tick
+     * @param x Circle x position at the end of the tick
+     * @param y Circle y position at the end of the tick
+     * @param r Circle radius
+     * @param mask Mask of the circle's sprite, null to only test the circles
+     * @param maskRotation Rotation of the circle's sprite in degrees
+     * @param enemyMask Mask of the enemy sprite, null to only test the circles
+     * @param spatialHash Spatial hash built from this swarm
+     * @param candidates Scratch array for the candidates
+     * @param timeOfImpact Receives the time of impact of the hit at index 0
+     * @return Index of the enemy, or -1 if none is hit
+     */
+    public int findSweptOverlap(float startX, float startY, float x, float y, float r,
+                                CollisionMask mask, float maskRotation, CollisionMask enemyMask,
+                                SpatialHash spatialHash, IntArray candidates, float[] timeOfImpact){
+        boolean testMasks = mask != null && enemyMask != null;
+        //A hit enemy ends the tick at most its own step, the circle's step and both radii away
+        float dx = x - startX, dy = y - startY;
+        float step = (float) Math.sqrt(dx * dx + dy * dy);
+        candidates.clear();
+        spatialHash.query(x, y, r + spatialHash.getCellSize() / 2 + step + maxStep, candidates);
+        int first = -1;
+        float firstTime = 2;
+        for (int k = 0; k < candidates.size; k++){
+            int i = candidates.get(k);
+            float t = SweptCollision.timeOfImpact(startX, startY, x, y, prevX[i], prevY[i],
+                    posX[i], posY[i], radius[i] + r);
+            //The pixels can only touch once the circles do, so a later circle hit can not win
+            if(t >= 0 && t < firstTime && testMasks) {
+                t = CollisionMask.timeOfImpact(mask, startX, startY, x, y, maskRotation, enemyMask,
+                        prevX[i], prevY[i], posX[i], posY[i], rotation[i], t);
+            }
+            if(t >= 0 && t < firstTime) {
+                first = i;
+                firstTime = t;
+            }
+        }
+        if(first >= 0) timeOfImpact[0] = firstTime;
+        return first;
+    }
+
+    /**
+     * Measure the longest step any enemy took since its previous position, which bounds how far
+     * around a circle findSweptOverlap() has to look
+     */
+    public void updateMaxStep(){
+        float maxStep2 = 0;
+        for (int i = 0; i < size; i++){
+            float dx = posX[i] - prevX[i], dy = posY[i] - prevY[i];
+            maxStep2 = Math.max(maxStep2, dx * dx + dy * dy);
+        }
+        maxStep = (float) Math.sqrt(maxStep2);
+    }
+
+    /**
+     * Push overlapping enemies apart and bounce them off each other like equal mass balls,
+     * neighbours are looked up in the spatial hash so the cost depends on the local density
+     * @param spatialHash Spatial hash built from this swarm
+     * @param candidates Scratch array for the neighbour candidates
+     */
+    public void separate(SpatialHash spatialHash, IntArray candidates){
+        for (int i = 0; i < size; i++){
+            candidates.clear();
+            spatialHash.query(posX[i], posY[i], 2 * radius[i], candidates);
+            for (int k = 0; k < candidates.size; k++){
+                int j = candidates.get(k);
+                if(j <= i) continue;
+                float dx = posX[j] - posX[i], dy = posY[j] - posY[i];
+                float minDist = radius[i] + radius[j];
+                float dist2 = dx * dx + dy * dy;
+                if(dist2 >= minDist * minDist || dist2 == 0) continue;
+                //Move both enemies half the overlap along the normal
+                float dist = (float) Math.sqrt(dist2);
+                float nx = dx / dist, ny = dy / dist;
+                float push = (minDist - dist) / 2;
+                posX[i] -= nx * push;
+                posY[i] -= ny * push;
+                posX[j] += nx * push;
+                posY[j] += ny * push;
+                //Swap the velocity along the normal if they move towards each other
+                float relVel = (velX[j] - velX[i]) * nx + (velY[j] - velY[i]) * ny;
+                if(relVel >= 0) continue;
+                setVelocity(i, velX[i] + relVel * nx, velY[i] + relVel * ny);
+                setVelocity(j, velX[j] - relVel * nx, velY[j] - relVel * ny);
+            }
+        }
+    }
+
+    /**
+     * Steer every enemy that does not fly straight, all in one pass. The steering of every enemy
+     * is found from the same state before any is applied, so the order of the enemies does not
+     * matter. Neighbours come from the spatial hash and are capped by the settings, so the cost
+     * per enemy stays bounded however crowded the swarm gets. Enemies only turn, they keep
+     * their speed
+     * @param targetX X position SEEK and FLOCK enemies home in on
+     * @param targetY Y position SEEK and FLOCK enemies home in on
+     * @param steering Weights and limits of the behaviours
+     * @param spatialHash Spatial hash built from this swarm
+     * @param candidates Scratch array for the neighbour candidates
+     * @param delta Tick length in seconds
+     */
+    public void steer(float targetX, float targetY, EnemySteering steering, SpatialHash spatialHash,
+                      IntArray candidates, float delta){
+        float stepScale = FixedTimestep.stepScale(delta);
+        float neighbourRadius = steering.neighbourRadius;
+        float maxForce = steering.maxForce * stepScale;
+        for (int i = 0; i < size; i++){
+            steerX[i] = 0;
+            steerY[i] = 0;
+            EnemyBehaviour enemyBehaviour = behaviour[i];
+            if(enemyBehaviour == EnemyBehaviour.STRAIGHT) continue;
+            float x = posX[i], y = posY[i];
+            float speed = (float) Math.sqrt(velX[i] * velX[i] + velY[i] * velY[i]);
+
+            //Sum up the neighbours within the radius
+            float awayX = 0, awayY = 0, headingX = 0, headingY = 0, centreX = 0, centreY = 0;
+            int neighbours = 0;
+            candidates.clear();
+            spatialHash.query(x, y, neighbourRadius, candidates, steering.maxCandidates);
+            for (int k = 0; k < candidates.size && neighbours < steering.maxNeighbours; k++){
+                int j = candidates.get(k);
+                float dx = x - posX[j], dy = y - posY[j];
+                float dist2 = dx * dx + dy * dy;
+                if(j == i || dist2 >= neighbourRadius * neighbourRadius || dist2 == 0) continue;
+                //Closer neighbours push away harder
+                float dist = (float) Math.sqrt(dist2);
+                float push = (neighbourRadius - dist) / (neighbourRadius * dist);
+                awayX += dx * push;
+                awayY += dy * push;
+                headingX += velX[j];
+                headingY += velY[j];
+                centreX += posX[j];
+                centreY += posY[j];
+                neighbours++;
+            }
+
+            //Home in only while the target is ahead, a enemy that flew past it flies on and leaves
+            float toX = targetX - x, toY = targetY - y;
+            if(toX * velX[i] + toY * velY[i] > 0) {
+                addSteering(i, toX, toY, speed, enemyBehaviour == EnemyBehaviour.SEEK
+                        ? steering.seekWeight : steering.flockSeekWeight);
+            }
+            if(neighbours > 0) {
+                addSteering(i, awayX, awayY, speed, steering.separationWeight);
+                if(enemyBehaviour == EnemyBehaviour.FLOCK) {
+                    addSteering(i, headingX, headingY, speed, steering.alignmentWeight);
+                    addSteering(i, centreX / neighbours - x, centreY / neighbours - y, speed,
+                            steering.cohesionWeight);
+                }
+            }
+            float force2 = steerX[i] * steerX[i] + steerY[i] * steerY[i];
+            if(force2 > maxForce * maxForce) {
+                float scale = maxForce / (float) Math.sqrt(force2);
+                steerX[i] *= scale;
+                steerY[i] *= scale;
+            }
+        }
+        for (int i = 0; i < size; i++){
+            if(steerX[i] == 0 && steerY[i] == 0) continue;
+            float speed2 = velX[i] * velX[i] + velY[i] * velY[i];
+            float vx = velX[i] + steerX[i], vy = velY[i] + steerY[i];
+            float length2 = vx * vx + vy * vy;
+            if(length2 == 0) continue;
+            float scale = (float) Math.sqrt(speed2 / length2);
+            setVelocity(i, vx * scale, vy * scale);
+        }
+    }
+
+    //Steer towards flying in a direction at the enemy's speed, the difference to its velocity
+    //is the steering force
+    private void addSteering(int i, float directionX, float directionY, float speed, float weight){
+        float length = (float) Math.sqrt(directionX * directionX + directionY * directionY);
+        if(length == 0 || weight == 0) return;
+        steerX[i] += weight * (directionX / length * speed - velX[i]);
+        steerY[i] += weight * (directionY / length * speed - velY[i]);
+    }
+
+    private void grow(int capacity){
+        posX = Arrays.copyOf(posX, capacity);
+        posY = Arrays.copyOf(posY, capacity);
+        prevX = Arrays.copyOf(prevX, capacity);
+        prevY = Arrays.copyOf(prevY, capacity);
+        velX = Arrays.copyOf(velX, capacity);
+        velY = Arrays.copyOf(velY, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        rotation = Arrays.copyOf(rotation, capacity);
+        behaviour = Arrays.copyOf(behaviour, capacity);
+        steerX = new float[capacity];
+        steerY = new float[capacity];
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
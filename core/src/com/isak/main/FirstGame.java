@@ -2,83 +2,224 @@ package com.isak.main;
 
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputMultiplexer;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
-import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.InputListener;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StringBuilder;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Comparator;
+
 public class FirstGame extends ApplicationAdapter {
 	private OrthographicCamera camera;
-	private ShapeRenderer shapeRenderer;
-	private SpriteBatch batch;
+	private RenderPipeline renderPipeline;
 	private Stage stage;
 	private BitmapFont font;
 	private TextButton button;
 	private GlyphLayout layout;
+	private TextureCache textureCache;
+	private ResourceTracker resources;
+	final private String spriteAtlasPath = "sprites.atlas";
+	private CollisionMaskCache maskCache;
+	final private String spriteMasksPath = "sprites.masks";
+	final private String wavesPath = "waves.json";
+
+	//Loading variables, the sprites are decoded in the background behind a loading screen
+	private AssetManager assetManager;
+	private boolean isLoading;
+	private StartupTimer startupTimer;
+	final private int loadBudgetMillis = 8;
+	final private String startupReportPath = "startup.csv";
 
 	//Touch variables
 	private TouchElement touchElement;
+	private TouchInput touchInput;
+	final private int touchQueueCapacity = 256;
 	final private int touchImageSize = 100;
 	final private String touchImagePath = "cucumber-pixel.png";
 
-	//Player variables
-	private Player player;
-	private Vector2 playerStartPos;
-	final private int playerRadius = 64;
-	final private int playerAccConstant = 200; //Higher is slower
-	final private int playerAccFriction = 50; //Higher is less friction
-	final private String playerImagePath = "ratge-pixel.png";
-
-	//Enemy variables
-	private EnemySpawner enemySpawner;
-	private int enemyRadius = 64;
-	final private String enemyImagePath = "clown-pixel.png";
-
 	//Game variables
-	private int score = 0;
-	private int highScore = 0;
-	final private float enemyStartSpeed = 4;
-	private float enemySpeedIncrease = 0.1f;
-	final private float enemyMaxSpeed = 10f;
-	private int maxNumberEnemies = 5;
-	private boolean isPlayerAlive = false;
+	private GameWorld world;
+	private GameConfig config;
+	private ScoreText scoreText;
+	private ScoreText highScoreText;
 	private boolean hasPlayerDiedOnes = false;
 
+	//Stats variables, the high score, the last sessions and the settings are kept between launches
+	private StatsStore statsStore;
+	private boolean settingsApplied;
+	final private String statsPath = "stats.json";
+	final private int sessionsKept = 100;
+	final private long statsSaveDelayMillis = 2000;
+	final private String profilerSetting = "showProfiler";
+	final private String debugChannelsSetting = "debugChannels";
+
+	//Replay variables, every round is recorded and F9 on the death screen plays the last one
+	private ReplayRecorder replayRecorder;
+	private FileHandle lastReplay;
+	private ReplayReader replayReader;
+	private InputStream replayInput;
+	private GameWorld replayWorld;
+	final private String replayFolder = "replays";
+	final private int replaysKept = 10;
+	final private int replayChunkSize = 4096;
+	final private int replayChunks = 4;
+
+	//Simulation variables
+	private FixedTimestep timestep;
+	final private float ticksPerSecond = 60;
+	final private float maxFrameTime = 0.25f;
+	final private boolean threadedSimulation;
+	private SimulationThread simulation;
+	private TextureRegion playerRegion;
+	private TextureRegion enemyRegion;
+
+	//Profiling variables, F3 toggles the overlay, a capture writes the profile on exit
+	private FrameProfiler profiler;
+	private GLProfiler glProfiler;
+	final private boolean profileCapture;
+	private StringBuilder profilerText;
+	private float profilerTextAge;
+	private boolean showProfiler = false;
+	final private int profilerWindow = 600;
+	final private float profilerTextInterval = 0.5f;
+
+	//Frame pacing, the death screen is only drawn on input and comes from a cached frame
+	private FramePacer framePacer;
+	private ScreenCache deathScreenCache;
+	final private int foregroundFps = 60;
+	final private int backgroundFps = 10;
+
+	//Debug drawing, F4 to F8 toggle the channels
+	private DebugDraw debugDraw;
+	final private float velocityLineTicks = 10;
+
+	public FirstGame() {
+		this(false, false);
+	}
+
+	/**
+	 * Constructor for the game
+	 * @param threadedSimulation True to step the world on its own thread and only draw
+	 *                           snapshots of it on the render thread
+	 * @param profileCapture True to count the GL calls of every frame and write the profile
+	 *                       to profile.csv and profile.json on exit
+	 */
+	public FirstGame(boolean threadedSimulation, boolean profileCapture) {
+		this.threadedSimulation = threadedSimulation;
+		this.profileCapture = profileCapture;
+		//The earliest point the game can measure, close to the process start on a cold start
+		startupTimer = new StartupTimer(TimeUtils.nanoTime());
+	}
+
 	@Override
 	public void create () {
-		shapeRenderer = new ShapeRenderer();
+		startupTimer.mark(StartupTimer.Milestone.CREATE);
 		camera = new OrthographicCamera();
 		camera.setToOrtho(false, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
-		batch = new SpriteBatch();
-
-		stage = new Stage(new ScreenViewport());
-		Gdx.input.setInputProcessor(stage);
+		//Everything holding native memory is tracked and disposed through resources
+		resources = new ResourceTracker();
+		renderPipeline = new RenderPipeline(resources);
 		font = new BitmapFont();
+		resources.track(font, ResourceTracker.Kind.FONT,
+				ResourceTracker.estimateBytes(font.getRegion().getTexture()));
 		font.getData().setScale(Gdx.graphics.getWidth()/600f);
-
 		layout = new GlyphLayout();
+		framePacer = new FramePacer(foregroundFps, backgroundFps);
+		deathScreenCache = new ScreenCache(resources);
+
+		//Only the built in font is loaded right away, the rest is set up once the sprites are
+		//loaded so the first frame is not held up by decoding images
+		assetManager = resources.track(new AssetManager(), ResourceTracker.Kind.ASSET_MANAGER, 0);
+		assetManager.load(spriteAtlasPath, TextureAtlas.class);
+		isLoading = true;
+	}
+
+	private void finishLoading() {
+		isLoading = false;
+		config = new GameConfig();
+		//Without a wave file the enemies keep speeding up with every despawn
+		FileHandle wavesFile = Gdx.files.internal(wavesPath);
+		if (wavesFile.exists()) {
+			config.waves = WaveCurve.load(wavesFile);
+			config.maxNumberEnemies = Math.max(config.maxNumberEnemies, config.waves.getMostEnemies());
+		}
+		//Every enemy, the player and the touch element in one draw call, before the stage takes the batch
+		renderPipeline.setSpriteCapacity(config.maxNumberEnemies + 2);
+		//The stage draws with the pipeline's batch, so it holds no native memory of its own
+		stage = resources.track(new Stage(new ScreenViewport(), renderPipeline.getBatch()),
+				ResourceTracker.Kind.STAGE, 0);
+		//The stage gets events first so touches on the button do not move the player
+		touchInput = new TouchInput(camera, touchQueueCapacity);
+		Gdx.input.setInputProcessor(new InputMultiplexer(stage, touchInput));
+
+		scoreText = new ScoreText("Score: ");
+		highScoreText = new ScoreText("High Score: ");
+		textureCache = new TextureCache(assetManager, spriteAtlasPath);
+		textureCache.setResourceTracker(resources);
+		//A few hundred bytes of text, the rotated masks are built once when the world asks for them
+		maskCache = new CollisionMaskCache(Gdx.files.internal(spriteMasksPath));
+		//Read on its own thread, the high score shows up a few frames later instead of delaying them
+		statsStore = new StatsStore(Gdx.files.local(statsPath), sessionsKept, statsSaveDelayMillis);
 
 		startAndResetButtonSetup();
-		touchElement = new TouchElement(touchImageSize, touchImagePath);
+		touchElement = new TouchElement(touchImageSize, touchImagePath, textureCache);
+
+		replayRecorder = new ReplayRecorder(touchInput, replayChunkSize, replayChunks);
+		world = new GameWorld(Gdx.graphics.getWidth(), Gdx.graphics.getHeight(), config,
+				replayRecorder, TimeUtils.millis(), textureCache);
+		world.setCollisionMasks(maskCache);
+		world.setListener(new GameWorld.Listener() {
+			@Override
+			public void playerLost() {
+				FirstGame.this.playerLost();
+			}
+		});
 
-		playerStartPos = new Vector2(Gdx.graphics.getWidth()/2f, Gdx.graphics.getHeight()/2f);
-		player = new Player(playerStartPos, playerRadius, playerAccConstant,
-				playerAccFriction, playerImagePath);
+		timestep = new FixedTimestep(ticksPerSecond, maxFrameTime);
 
-		enemySpawner = new EnemySpawner(enemyStartSpeed, enemySpeedIncrease, enemyMaxSpeed,
-				maxNumberEnemies, enemyRadius, enemyImagePath);
+		profiler = new FrameProfiler(profilerWindow);
+		if (threadedSimulation) startSimulationThread();
+		//The profiler is not thread safe, with a simulation thread only the render stages are timed
+		else world.setProfiler(profiler);
+		//Only enabled while its counters are shown or captured, it wraps every GL call
+		glProfiler = new GLProfiler(Gdx.graphics);
+		profilerText = new StringBuilder(512);
+		debugDraw = new DebugDraw(velocityLineTicks);
+	}
+
+	private void startSimulationThread() {
+		playerRegion = textureCache.obtain(config.playerImagePath);
+		enemyRegion = textureCache.obtain(config.enemyImagePath);
+		simulation = new SimulationThread(world, replayRecorder, new SimulationThread.TickListener() {
+			@Override
+			public void beforeTick(long tickTime) {
+				touchInput.snapshot(tickTime);
+				replayRecorder.tick();
+			}
+		}, timestep.getTickLength(), maxFrameTime);
+		simulation.start();
 	}
 
 	private void startAndResetButtonSetup() {
@@ -103,82 +244,344 @@ public class FirstGame extends ApplicationAdapter {
 	}
 
 	private void resetGame() {
-		isPlayerAlive = true;
-		player.reset(playerStartPos);
-		enemySpawner.resetEnemies();
-		score = 0;
+		stopReplay();
+		//With a simulation thread the round starts later, so the next frame may still look idle
+		framePacer.wake();
+		final long seed = TimeUtils.nanoTime();
+		//The file work stays on the render thread, the simulation thread only gets the open stream
+		final OutputStream replayOut = openReplay();
+		if (simulation == null) {
+			startRound(seed, replayOut);
+			return;
+		}
+		simulation.post(new Runnable() {
+			@Override
+			public void run() {
+				startRound(seed, replayOut);
+			}
+		});
+	}
+
+	private void startRound(long seed, OutputStream replayOut) {
+		world.reset(seed);
+		if (replayOut != null) {
+			replayRecorder.begin(replayOut, seed, timestep.getTickLength(),
+					world.getWorldWidth(), world.getWorldHeight(), config);
+		}
+	}
+
+	private boolean isLivePlayerAlive() {
+		return simulation != null ? simulation.latest().isPlayerAlive() : world.isPlayerAlive();
+	}
+
+	private OutputStream openReplay() {
+		pruneReplays();
+		lastReplay = Gdx.files.local(replayFolder + "/" + TimeUtils.millis() + ".rpl");
+		try {
+			return lastReplay.write(false);
+		} catch (GdxRuntimeException e) {
+			Gdx.app.error("FirstGame", "Could not record replay", e);
+			lastReplay = null;
+			return null;
+		}
+	}
+
+	private void pruneReplays() {
+		//Names are start times, so sorting by name puts the oldest first
+		FileHandle[] replays = Gdx.files.local(replayFolder).list(".rpl");
+		Arrays.sort(replays, new Comparator<FileHandle>() {
+			@Override
+			public int compare(FileHandle a, FileHandle b) {
+				return a.name().compareTo(b.name());
+			}
+		});
+		for (int i = 0; i <= replays.length - replaysKept; i++){
+			replays[i].delete();
+		}
+	}
+
+	private void startReplay() {
+		if (lastReplay == null || !lastReplay.exists()) return;
+		stopReplay();
+		try {
+			replayInput = lastReplay.read(replayChunkSize);
+			replayReader = new ReplayReader(replayInput);
+		} catch (IOException e) {
+			Gdx.app.error("FirstGame", "Could not read replay " + lastReplay.name(), e);
+			stopReplay();
+			return;
+		}
+		replayWorld = replayReader.createWorld(textureCache, maskCache);
+		//Show the whole recorded world, it can be another size if the window was resized
+		camera.setToOrtho(false, replayReader.getWorldWidth(), replayReader.getWorldHeight());
+		stage.clear();
+	}
+
+	private void stopReplay() {
+		if (replayInput == null) return;
+		try {
+			replayInput.close();
+		} catch (IOException ignored) {
+		}
+		replayInput = null;
+		replayReader = null;
+		if (replayWorld != null) replayWorld.dispose();
+		replayWorld = null;
+		camera.setToOrtho(false, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+		deathScreenCache.invalidate();
+		if (!isLivePlayerAlive()) stage.addActor(button);
+	}
+
+	private void renderLoadingScreen() {
+		//Decoding runs on the manager's own thread, uploads only get a slice of every frame
+		if (assetManager.update(loadBudgetMillis)) {
+			startupTimer.mark(StartupTimer.Milestone.LOADED);
+			finishLoading();
+		}
+		float width = Gdx.graphics.getWidth();
+		float height = Gdx.graphics.getHeight();
+		Gdx.gl.glClearColor(119f/255f,136/255f,153f/255f,1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+		renderPipeline.beginFrame(camera.combined);
+		float barWidth = width * 0.5f;
+		float barHeight = height * 0.03f;
+		renderPipeline.drawRect((width - barWidth) / 2f, height / 3f, barWidth, barHeight, 0, 0, 0, 0.6f);
+		renderPipeline.drawRect((width - barWidth) / 2f, height / 3f, barWidth * assetManager.getProgress(),
+				barHeight, 1, 1, 1, 1);
+		SpriteBatch batch = renderPipeline.hud();
+		String loadingText = "Loading...";
+		layout.setText(font, loadingText);
+		font.draw(batch, loadingText, (width - layout.width) / 2f, height / 2f + layout.height);
+		renderPipeline.endFrame();
+		startupTimer.mark(StartupTimer.Milestone.FIRST_FRAME);
+	}
+
+	private void reportStartup() {
+		StringBuilder text = new StringBuilder(256);
+		startupTimer.appendReport(text);
+		Gdx.app.log("Startup", text.toString());
+		//One row per launch, so cold starts can be tracked across builds and devices
+		FileHandle report = Gdx.files.local(startupReportPath);
+		text.setLength(0);
+		if (!report.exists()) StartupTimer.appendCsvHeader(text);
+		startupTimer.appendCsvRow(text);
+		try {
+			report.writeString(text.toString(), true);
+		} catch (GdxRuntimeException e) {
+			Gdx.app.error("FirstGame", "Could not write the startup report", e);
+		}
 	}
 
 	@Override
 	public void render () {
+		if (isLoading) {
+			renderLoadingScreen();
+			return;
+		}
+		profiler.begin(FrameProfiler.Stage.FRAME);
 		//### Game Logic ###
-		//Camera and touch position
+		profiler.begin(FrameProfiler.Stage.INPUT);
 		camera.update();
-		touchElement.moveTouchPosition();
-		camera.unproject(touchElement.getTouchPos());
-		touchElement.setTouchImagePosition();
+		if (!settingsApplied && statsStore.isLoaded()) applySettings();
+		if (Gdx.input.isKeyJustPressed(Input.Keys.F3)) {
+			showProfiler = !showProfiler;
+			statsStore.putSetting(profilerSetting, showProfiler ? 1 : 0);
+		}
+		if (Gdx.input.isKeyJustPressed(Input.Keys.F9) && !isLivePlayerAlive()) startReplay();
+		toggleDebugChannels();
+		boolean countGl = showProfiler || profileCapture;
+		if (countGl != glProfiler.isEnabled()) {
+			if (countGl) glProfiler.enable();
+			else glProfiler.disable();
+			glProfiler.reset();
+		}
+		profiler.end(FrameProfiler.Stage.INPUT);
 
-		//Check if enemies should spawn
-		while(enemySpawner.getCurrentNumberEnemies() < enemySpawner.getMaxNumberEnemies()){
-			enemySpawner.spawnEnemy();
+		//Run as many fixed ticks as the frame time covers, every tick gets the touch events
+		//that happened up to its own time
+		long frameTime = TimeUtils.nanoTime();
+		//The time since the last idle frame was spent on the death screen, a round that just
+		//started should not catch up on it
+		int ticks = timestep.advance(framePacer.isIdle() ? 0 : Gdx.graphics.getDeltaTime());
+		long tickNanos = (long) (timestep.getTickLength() * 1000000000L);
+		long lastTickTime = frameTime - (long) (timestep.getAlpha() * tickNanos);
+		for (int tick = 0; tick < ticks; tick++){
+			if (replayWorld != null) {
+				//The replay drives its own world, the live round waits on the death screen
+				if (replayReader.tick()) replayWorld.step(replayReader.getTickLength());
+				else stopReplay();
+				continue;
+			}
+			//The simulation thread steps the live world on its own
+			if (simulation != null) break;
+			touchInput.snapshot(lastTickTime - (ticks - 1 - tick) * tickNanos);
+			replayRecorder.tick();
+			world.step(timestep.getTickLength());
+		}
+		//Draw the replay, the latest snapshot from the simulation thread or the world itself
+		GameWorld shownWorld = replayWorld != null ? replayWorld : world;
+		WorldSnapshot snapshot = replayWorld == null && simulation != null ? simulation.latest() : null;
+		boolean isPlayerAlive;
+		int score;
+		float alpha;
+		if (snapshot != null) {
+			touchElement.moveTouchPosition(snapshot);
+			isPlayerAlive = snapshot.isPlayerAlive();
+			score = snapshot.getScore();
+			alpha = simulation.getAlpha(snapshot, frameTime);
+		} else {
+			touchElement.moveTouchPosition(replayWorld != null ? replayReader : replayRecorder);
+			isPlayerAlive = shownWorld.isPlayerAlive();
+			score = shownWorld.getScore();
+			alpha = timestep.getAlpha();
 		}
+		//Nothing moves while dead, so there is nothing to interpolate
+		if (!isPlayerAlive) alpha = 1;
+		//The death screen only changes on input, the profiler overlay keeps updating on its own
+		boolean idle = !isPlayerAlive && replayWorld == null && !showProfiler;
+		framePacer.setIdle(idle);
 
-		if (isPlayerAlive) {
-			player.movement(touchElement.getTouchPos().x, touchElement.getTouchPos().y);
-			enemySpawner.moveEnemies();
+		//### Drawing ###
+		renderPipeline.beginFrame(camera.combined);
+		if (!idle || !deathScreenCache.isValid()) {
+			//Draw the frozen world, overlay and lose text once into the cache, then only the cache
+			if (idle) deathScreenCache.begin(renderPipeline);
+			drawScene(shownWorld, snapshot, isPlayerAlive, alpha);
+			if (idle) deathScreenCache.end(renderPipeline);
+		}
+		profiler.begin(FrameProfiler.Stage.HUD);
+		if (idle) deathScreenCache.draw(renderPipeline);
+		//The button reacts to touches, so it is never part of the cache
+		if (!isPlayerAlive) {
+			renderPipeline.flush();
+			stage.draw();
 		}
+		drawScore(score);
+		if (showProfiler) drawProfiler();
+		renderPipeline.endFrame();
+		profiler.end(FrameProfiler.Stage.HUD);
+		profiler.end(FrameProfiler.Stage.FRAME);
 
-		checkPlayerEnemyCollision();
-		player.checkIfHitWall();
-		enemySpawner.checkEnemyDespawn();
+		//GL counters of this frame
+		if (glProfiler.isEnabled()) {
+			profiler.record(FrameProfiler.Counter.GL_CALLS, glProfiler.getCalls());
+			profiler.record(FrameProfiler.Counter.DRAW_CALLS, glProfiler.getDrawCalls());
+			profiler.record(FrameProfiler.Counter.TEXTURE_BINDINGS, glProfiler.getTextureBindings());
+			profiler.record(FrameProfiler.Counter.SHADER_SWITCHES, glProfiler.getShaderSwitches());
+			glProfiler.reset();
+		}
+		profiler.endFrame();
+		//The first frame of the game with input hooked up
+		if (!startupTimer.isReached(StartupTimer.Milestone.INTERACTIVE)) {
+			startupTimer.mark(StartupTimer.Milestone.INTERACTIVE);
+			reportStartup();
+		}
+	}
 
-		//### Drawing ###
+	private void drawScene(GameWorld shownWorld, WorldSnapshot snapshot, boolean isPlayerAlive, float alpha) {
 		//Background Color
 		Gdx.gl.glClearColor(119f/255f,136/255f,153f/255f,1);
 		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
-		touchElement.drawLineBetweenTouchAndPlayer(player.getPlayerPos());
-		if (isPlayerAlive) touchElement.render();
-		player.render();
-		player.drawCollider();
-		player.drawRadius();
-		enemySpawner.renderEnemies();
-		enemySpawner.drawEnemiesColliders();
+		//Sprite layer, every layer is flushed before its timer stops so the GL work is counted
+		profiler.begin(FrameProfiler.Stage.WORLD_DRAW);
+		if (isPlayerAlive) touchElement.render(renderPipeline);
+		if (snapshot != null) {
+			snapshot.render(renderPipeline, playerRegion, enemyRegion, alpha);
+		} else {
+			shownWorld.getPlayer().render(renderPipeline, alpha);
+			shownWorld.getEnemySpawner().renderEnemies(renderPipeline, alpha);
+		}
+		renderPipeline.flush();
+		profiler.end(FrameProfiler.Stage.WORLD_DRAW);
+		//Debug layer, reads the entities directly so it is skipped while another thread steps them
+		profiler.begin(FrameProfiler.Stage.DEBUG_DRAW);
+		if (snapshot == null) debugDraw.draw(renderPipeline, shownWorld, touchElement);
+		renderPipeline.flush();
+		profiler.end(FrameProfiler.Stage.DEBUG_DRAW);
+		if (!isPlayerAlive) drawDeathScreen();
+	}
+
+	private void toggleDebugChannels() {
+		if (Gdx.input.isKeyJustPressed(Input.Keys.F4)) debugDraw.toggle(DebugDraw.Channel.COLLIDERS);
+		if (Gdx.input.isKeyJustPressed(Input.Keys.F5)) debugDraw.toggle(DebugDraw.Channel.RADII);
+		if (Gdx.input.isKeyJustPressed(Input.Keys.F6)) debugDraw.toggle(DebugDraw.Channel.TOUCH_LINE);
+		if (Gdx.input.isKeyJustPressed(Input.Keys.F7)) debugDraw.toggle(DebugDraw.Channel.SPATIAL_GRID);
+		if (Gdx.input.isKeyJustPressed(Input.Keys.F8)) debugDraw.toggle(DebugDraw.Channel.VELOCITIES);
+		//The cached death screen shows the debug drawing that was on when it was drawn
+		for (int key = Input.Keys.F4; key <= Input.Keys.F8; key++){
+			if (Gdx.input.isKeyJustPressed(key)) {
+				deathScreenCache.invalidate();
+				statsStore.putSetting(debugChannelsSetting, debugDraw.getEnabledChannels());
+			}
+		}
+	}
+
+	private void applySettings() {
+		settingsApplied = true;
+		showProfiler = statsStore.getSetting(profilerSetting, showProfiler ? 1 : 0) != 0;
+		debugDraw.setEnabledChannels(statsStore.getSetting(debugChannelsSetting, debugDraw.getEnabledChannels()));
+		deathScreenCache.invalidate();
+	}
+
+	private void drawProfiler() {
+		//Percentiles are sorted on update, so only refresh the text a few times a second
+		profilerTextAge += Gdx.graphics.getDeltaTime();
+		if (profilerTextAge >= profilerTextInterval || profilerText.length() == 0) {
+			profilerTextAge = 0;
+			profilerText.setLength(0);
+			profilerText.append("p50/p95/p99\n");
+			profiler.appendSummary(profilerText);
+			resources.appendSummary(profilerText);
+		}
+		SpriteBatch batch = renderPipeline.hud();
+		font.getData().setScale(Gdx.graphics.getWidth()/1500f);
+		font.draw(batch, profilerText, Gdx.graphics.getWidth() * 0.03f, Gdx.graphics.getHeight() * 0.88f);
+		font.getData().setScale(Gdx.graphics.getWidth()/600f);
+	}
 
-		if (!isPlayerAlive){
-			drawStartAndResetScreen();
+	private void writeProfile() {
+		FileHandle csv = Gdx.files.local("profile.csv");
+		FileHandle json = Gdx.files.local("profile.json");
+		Writer writer = null;
+		try {
+			writer = csv.writer(false);
+			profiler.writeCsv(writer);
+			writer.close();
+			writer = json.writer(false);
+			profiler.writeJson(writer);
+			writer.close();
+			writer = null;
+		} catch (IOException | GdxRuntimeException e) {
+			Gdx.app.error("FirstGame", "Could not write the profile", e);
+		} finally {
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (IOException ignored) {
+				}
+			}
 		}
-		drawScore();
-		if (isPlayerAlive) score++;
 	}
 
-	private void drawScore() {
-		batch.begin();
+	private void drawScore(int score) {
+		SpriteBatch batch = renderPipeline.hud();
 		float scoreTextInsetPercentX = 0.97f;
 		float scoreTextInsetPercentY = 0.97f;
-		font.draw(batch, "Score: " + score, Gdx.graphics.getWidth()*(1 - scoreTextInsetPercentX),
+		font.draw(batch, scoreText.get(score), Gdx.graphics.getWidth()*(1 - scoreTextInsetPercentX),
 				Gdx.graphics.getHeight() * scoreTextInsetPercentY);
-		String highScoreText = "High Score: " + highScore;
+		CharSequence highScoreText = this.highScoreText.get(statsStore.getHighScore());
 		layout.setText(font, highScoreText);
 		font.draw(batch, highScoreText, Gdx.graphics.getWidth() * scoreTextInsetPercentX - layout.width,
 				Gdx.graphics.getHeight() * scoreTextInsetPercentY);
-		batch.end();
 	}
 
-	private void drawStartAndResetScreen() {
-		if(score > highScore) highScore = score;
+	private void drawDeathScreen() {
 		//Create a dark background overlay
-		Gdx.gl.glEnable(GL20.GL_BLEND);
-		Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
-		shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-		shapeRenderer.setColor(0,0,0,0.6f);
-		shapeRenderer.rect(0,0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
-		shapeRenderer.end();
-		Gdx.gl.glDisable(GL20.GL_BLEND);
-		stage.draw();
+		renderPipeline.drawOverlay(0,0,0,0.6f);
 		//If player has died ones draw reset message also
 		if (!hasPlayerDiedOnes) return;
-		batch.begin();
+		SpriteBatch batch = renderPipeline.hud();
 		String loseText = "Ratge got caught by the clowns...";
 		font.getData().setScale(Gdx.graphics.getWidth()/500f);
 		layout.setText(font, loseText);
@@ -188,38 +591,99 @@ public class FirstGame extends ApplicationAdapter {
 		font.draw(batch, loseText, (Gdx.graphics.getWidth() - layout.width) / 2f,
 				Gdx.graphics.getHeight() / 2f  - layout.height);
 		font.getData().setScale(Gdx.graphics.getWidth()/600f);
-		batch.end();
 	}
 
-	private void checkPlayerEnemyCollision() {
-		boolean isColliding;
-		for (int enemy = enemySpawner.getCurrentNumberEnemies() - 1; enemy >= 0; enemy--){
-			isColliding = player.getPlayerCollision().overlaps(enemySpawner.getEnemy(enemy).getEnemyCollision());
-			if(isColliding) {
-				playerLost();
-			}
+	private void playerLost() {
+		int score = world.getScore();
+		replayRecorder.end(score);
+		if (replayRecorder.getWriteError() != null) {
+			Gdx.app.error("FirstGame", "Could not write replay", replayRecorder.getWriteError());
 		}
+		SpawnScheduler spawns = world.getEnemySpawner().getSpawnScheduler();
+		StatsStore.Session session = new StatsStore.Session();
+		session.endTime = TimeUtils.millis();
+		session.duration = spawns.getRoundTime();
+		session.score = score;
+		session.enemiesDodged = spawns.getRoundDespawns();
+		session.speedReached = spawns.getSpeed();
+		//Only queues the write, so it is safe on the simulation thread and never waits on the file
+		statsStore.record(session);
+		if (simulation == null) {
+			showRestart();
+			return;
+		}
+		//Called on the simulation thread, the UI belongs to the render thread
+		Gdx.app.postRunnable(new Runnable() {
+			@Override
+			public void run() {
+				showRestart();
+			}
+		});
 	}
 
-	private void playerLost() {
-		isPlayerAlive = false;
+	private void showRestart() {
 		hasPlayerDiedOnes = true;
+		deathScreenCache.invalidate();
 		button.setText("Restart?");
 		stage.addActor(button);
 	}
 
 	@Override
-	public void pause () {
+	public void resize (int width, int height) {
+		deathScreenCache.invalidate();
+	}
 
+	@Override
+	public void pause () {
+		framePacer.setBackground(true);
+		if (isLoading) return;
+		//Touches that end while paused never send touchUp
+		touchInput.clear();
+		//Mobile apps can be killed in the background without another callback
+		statsStore.flush();
+		if (simulation != null) simulation.setPaused(true);
 	}
 
 	@Override
 	public void resume () {
-
+		framePacer.setBackground(false);
+		//A lost GL context keeps the frame buffer but not what was drawn into it
+		deathScreenCache.invalidate();
+		if (isLoading) return;
+		if (simulation != null) simulation.setPaused(false);
 	}
 
 	@Override
 	public void dispose () {
+		if (!isLoading) disposeGame();
+		resources.dispose(assetManager);
+		resources.dispose(font);
+		renderPipeline.dispose();
+		//Anything still tracked was leaked by the game, report it and dispose it anyway
+		if (resources.getLiveCount() > 0) {
+			StringBuilder leaks = new StringBuilder();
+			resources.appendSummary(leaks);
+			Gdx.app.error("FirstGame", "Resources still live at shutdown:\n" + leaks);
+		}
+		resources.dispose();
+	}
 
+	private void disposeGame() {
+		if (profileCapture && profiler.getFrames() > 0) writeProfile();
+		glProfiler.disable();
+		stopReplay();
+		if (simulation != null) {
+			simulation.dispose();
+			textureCache.release(config.playerImagePath);
+			textureCache.release(config.enemyImagePath);
+		}
+		replayRecorder.end(world.getScore());
+		replayRecorder.dispose();
+		world.dispose();
+		touchElement.dispose();
+		deathScreenCache.dispose();
+		statsStore.dispose();
+		textureCache.dispose();
+		resources.dispose(stage);
 	}
 }
@@ -0,0 +1,62 @@
+package com.isak.main;
+
+public class FixedTimestep {
+
+    /**
+     * Speeds and accelerations in the game are given in pixels per reference tick
+     */
+    public static final float REFERENCE_TICK = 1/60f;
+
+    private float tickLength;
+    private float maxFrameTime;
+    private float accumulator;
+
+    /**
+     * Constructor for a fixed timestep, frame time is collected in an accumulator and paid out
+     * as whole ticks so the simulation runs at the same rate no matter the frame rate
+     * @param ticksPerSecond Simulation rate
+     * @param maxFrameTime Longest frame time in seconds that is simulated, longer frames are
+     *                     clamped so a slow frame can not cause even slower frames (spiral of death)
+     */
+    public FixedTimestep(float ticksPerSecond, float maxFrameTime){
+        setTicksPerSecond(ticksPerSecond);
+        this.maxFrameTime = maxFrameTime;
+    }
+
+    /**
+     * Add the time of a frame to the accumulator
+     * @param frameTime Time since the last frame in seconds
+     * @return Number of ticks to simulate this frame
+     */
+    public int advance(float frameTime){
+        accumulator += Math.min(frameTime, maxFrameTime);
+        int ticks = (int) (accumulator / tickLength);
+        accumulator -= ticks * tickLength;
+        return ticks;
+    }
+
+    /**
+     * How far the render time is between the previous and the current tick, used to interpolate
+     * @return Value between 0 (previous tick) and 1 (current tick)
+     */
+    public float getAlpha(){
+        return accumulator / tickLength;
+    }
+
+    /**
+     * Convert a tick length to the factor speeds given per reference tick are multiplied with
+     * @param delta Tick length in seconds
+     * @return The factor
+     */
+    public static float stepScale(float delta){
+        return delta / REFERENCE_TICK;
+    }
+
+    public void setTicksPerSecond(float ticksPerSecond) {
+        tickLength = 1 / ticksPerSecond;
+    }
+
+    public float getTickLength() {
+        return tickLength;
+    }
+}
@@ -0,0 +1,57 @@
+package com.isak.main;
+
+import com.badlogic.gdx.Gdx;
+
+public class FramePacer {
+
+    private int foregroundFps;
+    private int backgroundFps;
+    private boolean idle;
+    private boolean background;
+
+    /**
+     * Constructor for the governor that decides how often frames are drawn. While idle, like on
+     * the start and restart screen, frames are only drawn when something asks for one (input
+     * does on every backend), and while the app is in the background the frame rate is capped
+     * @param foregroundFps Frame rate cap while in the foreground, 0 for no cap
+     * @param backgroundFps Frame rate cap while in the background
+     */
+    public FramePacer(int foregroundFps, int backgroundFps){
+        this.foregroundFps = foregroundFps;
+        this.backgroundFps = backgroundFps;
+    }
+
+    /**
+     * Switch between drawing every frame and only drawing on request
+     * @param idle True when nothing on screen moves on its own
+     */
+    public void setIdle(boolean idle){
+        if(this.idle == idle) return;
+        this.idle = idle;
+        Gdx.graphics.setContinuousRendering(!idle);
+        //The frame that switched back has been drawn already, start the next one right away
+        if(!idle) Gdx.graphics.requestRendering();
+    }
+
+    /**
+     * Draw every frame again, for changes that happen without input like a round starting on
+     * the simulation thread
+     */
+    public void wake(){
+        setIdle(false);
+    }
+
+    /**
+     * Lower the frame rate cap while the app is in the background
+     * @param background True when the app went to the background
+     */
+    public void setBackground(boolean background){
+        if(this.background == background) return;
+        this.background = background;
+        Gdx.graphics.setForegroundFPS(background ? backgroundFps : foregroundFps);
+    }
+
+    public boolean isIdle() {
+        return idle;
+    }
+}
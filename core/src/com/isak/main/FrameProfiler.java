@@ -0,0 +1,221 @@
+package com.isak.main;
+
+import com.badlogic.gdx.utils.StringBuilder;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+
+public class FrameProfiler {
+
+    public enum Stage {
+        INPUT("input"),
+        SPAWN("spawn"),
+        MOVE("move"),
+        COLLISION("collision"),
+        STEER("steer"),
+        DESPAWN("despawn"),
+        WORLD_DRAW("world draw"),
+        DEBUG_DRAW("debug draw"),
+        HUD("hud"),
+        FRAME("frame");
+
+        final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
+    public enum Counter {
+        GL_CALLS("gl calls"),
+        DRAW_CALLS("draw calls"),
+        TEXTURE_BINDINGS("texture binds"),
+        SHADER_SWITCHES("shader switches");
+
+        final String label;
+
+        Counter(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final Counter[] COUNTERS = Counter.values();
+
+    //Ring buffers with the last windowSize frames, times in nanoseconds
+    private long[][] stageSamples;
+    private long[][] counterSamples;
+    private long[] stageStart;
+    private long[] stageCurrent;
+    private long[] counterCurrent;
+    private long[] sortScratch;
+    private int windowSize;
+    private int next;
+    private int count;
+    private long frames;
+
+    /**
+     * Constructor for a profiler that times each stage of a frame with System.nanoTime and keeps
+     * the last frames in preallocated ring buffers for rolling percentiles. Nothing is
+     * allocated while profiling
+     * @param windowSize Number of frames the percentiles are calculated over
+     */
+    public FrameProfiler(int windowSize){
+        this.windowSize = windowSize;
+        stageSamples = new long[STAGES.length][windowSize];
+        counterSamples = new long[COUNTERS.length][windowSize];
+        stageStart = new long[STAGES.length];
+        stageCurrent = new long[STAGES.length];
+        counterCurrent = new long[COUNTERS.length];
+        sortScratch = new long[windowSize];
+    }
+
+    /**
+     * Start timing a stage, a stage can be timed several times in a frame (like once per tick)
+     * and the times are added together
+     * @param stage The stage
+     */
+    public void begin(Stage stage){
+        stageStart[stage.ordinal()] = System.nanoTime();
+    }
+
+    /**
+     * Stop timing a stage
+     * @param stage The stage
+     */
+    public void end(Stage stage){
+        stageCurrent[stage.ordinal()] += System.nanoTime() - stageStart[stage.ordinal()];
+    }
+
+    /**
+     * Record a counter for the current frame, like the number of draw calls
+     * @param counter The counter
+     * @param value Value for this frame
+     */
+    public void record(Counter counter, long value){
+        counterCurrent[counter.ordinal()] = value;
+    }
+
+    /**
+     * Store the current frame in the ring buffers and start a new one
+     */
+    public void endFrame(){
+        for (int i = 0; i < STAGES.length; i++){
+            stageSamples[i][next] = stageCurrent[i];
+            stageCurrent[i] = 0;
+        }
+        for (int i = 0; i < COUNTERS.length; i++){
+            counterSamples[i][next] = counterCurrent[i];
+            counterCurrent[i] = 0;
+        }
+        next = (next + 1) % windowSize;
+        if(count < windowSize) count++;
+        frames++;
+    }
+
+    /**
+     * Get a percentile of a stage over the window
+     * @param stage The stage
+     * @param percentile Between 0 and 1, like 0.95f for p95
+     * @return Time in nanoseconds
+     */
+    public long getPercentile(Stage stage, float percentile){
+        return percentile(stageSamples[stage.ordinal()], percentile);
+    }
+
+    /**
+     * Get a percentile of a counter over the window
+     * @param counter The counter
+     * @param percentile Between 0 and 1, like 0.95f for p95
+     * @return The counter value
+     */
+    public long getPercentile(Counter counter, float percentile){
+        return percentile(counterSamples[counter.ordinal()], percentile);
+    }
+
+    private long percentile(long[] samples, float percentile){
+        if(count == 0) return 0;
+        System.arraycopy(samples, 0, sortScratch, 0, count);
+        Arrays.sort(sortScratch, 0, count);
+        return sortScratch[Math.min(count - 1, (int) (percentile * count))];
+    }
+
+    /**
+     * Write p50/p95/p99 of every stage (in microseconds) and counter into a text, one line each.
+     * Only appends ints so no strings are created
+     * @param text Where to write the lines
+     */
+    public void appendSummary(StringBuilder text){
+        for(Stage stage : STAGES){
+            text.append(stage.label).append(' ');
+            text.append((int) (getPercentile(stage, 0.5f) / 1000)).append('/');
+            text.append((int) (getPercentile(stage, 0.95f) / 1000)).append('/');
+            text.append((int) (getPercentile(stage, 0.99f) / 1000)).append(" us\n");
+        }
+        for(Counter counter : COUNTERS){
+            text.append(counter.label).append(' ');
+            text.append((int) getPercentile(counter, 0.5f)).append('/');
+            text.append((int) getPercentile(counter, 0.99f)).append('\n');
+        }
+    }
+
+    /**
+     * Write the percentiles of the window as CSV
+     * @param writer Where to write
+     */
+    public void writeCsv(Writer writer){
+        PrintWriter out = new PrintWriter(writer);
+        out.println("metric,unit,p50,p95,p99,max,frames");
+        for(Stage stage : STAGES){
+            out.println(String.format(Locale.ROOT, "%s,us,%.1f,%.1f,%.1f,%.1f,%d", stage.name(),
+                    getPercentile(stage, 0.5f) / 1000f, getPercentile(stage, 0.95f) / 1000f,
+                    getPercentile(stage, 0.99f) / 1000f, getPercentile(stage, 1f) / 1000f, count));
+        }
+        for(Counter counter : COUNTERS){
+            out.println(String.format(Locale.ROOT, "%s,count,%d,%d,%d,%d,%d", counter.name(),
+                    getPercentile(counter, 0.5f), getPercentile(counter, 0.95f),
+                    getPercentile(counter, 0.99f), getPercentile(counter, 1f), count));
+        }
+        out.flush();
+    }
+
+    /**
+     * Write the percentiles of the window as JSON
+     * @param writer Where to write
+     */
+    public void writeJson(Writer writer){
+        PrintWriter out = new PrintWriter(writer);
+        out.println("{");
+        out.println("  \"frames\": " + frames + ",");
+        out.println("  \"window\": " + count + ",");
+        out.println("  \"stagesMicros\": {");
+        for (int i = 0; i < STAGES.length; i++){
+            Stage stage = STAGES[i];
+            out.print(String.format(Locale.ROOT,
+                    "    \"%s\": {\"p50\": %.1f, \"p95\": %.1f, \"p99\": %.1f, \"max\": %.1f}",
+                    stage.name(), getPercentile(stage, 0.5f) / 1000f,
+                    getPercentile(stage, 0.95f) / 1000f, getPercentile(stage, 0.99f) / 1000f,
+                    getPercentile(stage, 1f) / 1000f));
+            out.println(i < STAGES.length - 1 ? "," : "");
+        }
+        out.println("  },");
+        out.println("  \"counters\": {");
+        for (int i = 0; i < COUNTERS.length; i++){
+            Counter counter = COUNTERS[i];
+            out.print(String.format(Locale.ROOT,
+                    "    \"%s\": {\"p50\": %d, \"p95\": %d, \"p99\": %d, \"max\": %d}",
+                    counter.name(), getPercentile(counter, 0.5f), getPercentile(counter, 0.95f),
+                    getPercentile(counter, 0.99f), getPercentile(counter, 1f)));
+            out.println(i < COUNTERS.length - 1 ? "," : "");
+        }
+        out.println("  }");
+        out.println("}");
+        out.flush();
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+}
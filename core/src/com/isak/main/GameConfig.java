@@ -0,0 +1,53 @@
+package com.isak.main;
+
+public class GameConfig {
+
+    //Player variables
+    public int playerRadius = 64;
+    public int playerAccConstant = 200; //Higher is slower
+    public int playerAccFriction = 50; //Higher is less friction
+    public String playerImagePath = "ratge-pixel.png";
+
+    //Enemy variables
+    public int enemyRadius = 64;
+    public String enemyImagePath = "clown-pixel.png";
+    public float enemyStartSpeed = 4;
+    public float enemySpeedIncrease = 0.1f;
+    public float enemyMaxSpeed = 10f;
+    public int maxNumberEnemies = 5;
+    public int maxSpawnsPerTick = 2; //Spreads refilling over ticks, 0 for no limit
+    public WaveCurve waves = null; //Enemy count and speed over the round, null for the speed increase per despawn
+    public boolean enemySwarmMode = true;
+    public boolean enemyCollisions = false;
+    public float enemySeekShare = 0; //Share of enemies that home in on the player
+    public float enemyFlockShare = 0; //Share of enemies that flock with the enemies around them
+    public boolean sweptCollision = true; //Test the motion during a tick, not just where it ends
+    public boolean pixelCollision = true; //Test the sprites' solid pixels after the circles, needs masks
+
+    /**
+     * Copy every value from another config
+     * @param config Config to copy
+     * @return This config for chaining
+     */
+    public GameConfig set(GameConfig config){
+        playerRadius = config.playerRadius;
+        playerAccConstant = config.playerAccConstant;
+        playerAccFriction = config.playerAccFriction;
+        playerImagePath = config.playerImagePath;
+        enemyRadius = config.enemyRadius;
+        enemyImagePath = config.enemyImagePath;
+        enemyStartSpeed = config.enemyStartSpeed;
+        enemySpeedIncrease = config.enemySpeedIncrease;
+        enemyMaxSpeed = config.enemyMaxSpeed;
+        maxNumberEnemies = config.maxNumberEnemies;
+        maxSpawnsPerTick = config.maxSpawnsPerTick;
+        waves = config.waves;
+        enemySwarmMode = config.enemySwarmMode;
+        enemyCollisions = config.enemyCollisions;
+        enemySeekShare = config.enemySeekShare;
+        enemyFlockShare = config.enemyFlockShare;
+        sweptCollision = config.sweptCollision;
+        pixelCollision = config.pixelCollision;
+        return this;
+    }
+}
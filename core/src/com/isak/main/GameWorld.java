@@ -0,0 +1,234 @@
+package com.isak.main;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Vector2;
+
+public class GameWorld {
+
+    public interface Listener {
+        /**
+         * Called on the tick the player collides with a enemy
+         */
+        void playerLost();
+    }
+
+    private float worldWidth;
+    private float worldHeight;
+    private GameConfig config;
+    private InputSource input;
+    private RandomXS128 random;
+    private Listener listener;
+    private FrameProfiler profiler;
+
+    private Player player;
+    private Vector2 playerStartPos;
+    private EnemySpawner enemySpawner;
+    private CollisionMask playerMask;
+
+    private int score = 0;
+    private float scoreTicks = 0;
+    private long tickCount = 0;
+    private boolean isPlayerAlive = false;
+    private float timeOfImpact = -1;
+
+    /**
+     * Constructor for the game simulation: player physics, enemy spawner, collision and score.
+     * Nothing in here touches Gdx.graphics or Gdx.input, so the world can run without a window
+     * and two worlds with the same seed and input play out the same
+     * @param worldWidth Width of the world in pixels
+     * @param worldHeight Height of the world in pixels
+     * @param config Player and enemy settings
+     * @param input Where the touch position comes from
+     * @param seed Seed for every random decision in the world
+     * @param textureCache Cache for the sprite textures, null when running headless
+     */
+    public GameWorld(float worldWidth, float worldHeight, GameConfig config, InputSource input,
+                     long seed, TextureCache textureCache){
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.config = config;
+        this.input = input;
+        random = new RandomXS128(seed);
+        setup(textureCache);
+    }
+
+    private void setup(TextureCache textureCache) {
+        playerStartPos = new Vector2(worldWidth/2f, worldHeight/2f);
+        player = new Player(playerStartPos, config.playerRadius, config.playerAccConstant,
+                config.playerAccFriction, config.playerImagePath, textureCache);
+        player.setWorldSize(worldWidth, worldHeight);
+
+        enemySpawner = new EnemySpawner(config.enemyStartSpeed, config.enemySpeedIncrease,
+                config.enemyMaxSpeed, config.maxNumberEnemies, config.enemyRadius,
+                config.enemyImagePath, textureCache);
+        enemySpawner.setWorldSize(worldWidth, worldHeight);
+        enemySpawner.setRandom(random);
+        enemySpawner.setSwarmMode(config.enemySwarmMode);
+        enemySpawner.setEnemyCollisions(config.enemyCollisions);
+        enemySpawner.setBehaviourMix(config.enemySeekShare, config.enemyFlockShare);
+        enemySpawner.setWaves(config.waves);
+        enemySpawner.setMaxSpawnsPerTick(config.maxSpawnsPerTick);
+    }
+
+    /**
+     * Start a new round, the random sequence continues from where it was
+     */
+    public void reset() {
+        isPlayerAlive = true;
+        player.reset(playerStartPos);
+        enemySpawner.resetEnemies();
+        score = 0;
+        scoreTicks = 0;
+        timeOfImpact = -1;
+    }
+
+    /**
+     * Start a new round with a new seed
+     * @param seed Seed for every random decision in the round
+     */
+    public void reset(long seed) {
+        random.setSeed(seed);
+        //Spawns planned before were drawn from the old sequence
+        enemySpawner.discardPlannedSpawns();
+        reset();
+    }
+
+    /**
+     * Advance the simulation one fixed tick
+     * @param delta Tick length in seconds
+     */
+    public void step(float delta) {
+        tickCount++;
+        //Check if enemies should spawn
+        if(profiler != null) profiler.begin(FrameProfiler.Stage.SPAWN);
+        enemySpawner.spawnEnemies(delta);
+        if(profiler != null) profiler.end(FrameProfiler.Stage.SPAWN);
+
+        if(profiler != null) profiler.begin(FrameProfiler.Stage.MOVE);
+        if (isPlayerAlive) {
+            player.movement(input.getTouchX(), input.getTouchY(), input.isTouched(), delta);
+            enemySpawner.moveEnemies(delta);
+        }
+        if(profiler != null) profiler.end(FrameProfiler.Stage.MOVE);
+
+        if(profiler != null) profiler.begin(FrameProfiler.Stage.COLLISION);
+        if (isPlayerAlive) enemySpawner.updateEnemyCollisions();
+        checkPlayerEnemyCollision();
+        player.checkIfHitWall();
+        if(profiler != null) profiler.end(FrameProfiler.Stage.COLLISION);
+
+        //Steered with the spatial hash the collision stage just built, the new velocities are
+        //flown from the next tick on
+        if(profiler != null) profiler.begin(FrameProfiler.Stage.STEER);
+        if (isPlayerAlive) {
+            Vector2 playerPos = player.getPlayerPos();
+            enemySpawner.steerEnemies(playerPos.x, playerPos.y, delta);
+        }
+        if(profiler != null) profiler.end(FrameProfiler.Stage.STEER);
+
+        if(profiler != null) profiler.begin(FrameProfiler.Stage.DESPAWN);
+        enemySpawner.checkEnemyDespawn();
+        if(profiler != null) profiler.end(FrameProfiler.Stage.DESPAWN);
+
+        //Score counts reference ticks survived, so it does not depend on the tick rate
+        if (isPlayerAlive) {
+            scoreTicks += FixedTimestep.stepScale(delta);
+            score = (int) scoreTicks;
+        }
+    }
+
+    private void checkPlayerEnemyCollision() {
+        boolean isColliding;
+        if(config.sweptCollision) {
+            //From where the player started the tick, so fast moves or long ticks can not skip a hit
+            Vector2 playerPrevPos = player.getPlayerPrevPos();
+            isColliding = enemySpawner.findEnemyHit(playerPrevPos.x, playerPrevPos.y,
+                    player.getPlayerCollision(), playerMask, player.getRotation()) >= 0;
+        }
+        else isColliding = enemySpawner.findEnemyOverlapping(player.getPlayerCollision(),
+                playerMask, player.getRotation()) >= 0;
+        if(isColliding && isPlayerAlive) {
+            timeOfImpact = config.sweptCollision ? enemySpawner.getTimeOfImpact() : 1;
+            playerLost();
+        }
+    }
+
+    private void playerLost() {
+        isPlayerAlive = false;
+        if(listener != null) listener.playerLost();
+    }
+
+    /**
+     * Release the textures of the player and enemies
+     */
+    public void dispose() {
+        enemySpawner.dispose();
+        player.dispose();
+    }
+
+    /**
+     * Give the world the sprite masks, with pixelCollision on a hit then needs the solid pixels
+     * of the player and enemy sprites to overlap and not just their circles. Without masks the
+     * circles decide, so set them before the round starts and the same way on every world that
+     * has to play out alike
+     * @param maskCache Masks of the sprite images, null to only test the circles
+     */
+    public void setCollisionMasks(CollisionMaskCache maskCache) {
+        playerMask = null;
+        CollisionMask enemyMask = null;
+        if(maskCache != null && config.pixelCollision) {
+            float cellSize = CollisionMask.getCellSize(2 * Math.max(config.playerRadius, config.enemyRadius));
+            playerMask = maskCache.get(config.playerImagePath, 2 * config.playerRadius, cellSize);
+            enemyMask = maskCache.get(config.enemyImagePath, 2 * config.enemyRadius, cellSize);
+        }
+        enemySpawner.setEnemyMask(enemyMask);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Time the spawn, move, collision and despawn stages of every tick
+     * @param profiler Profiler to report to, null to stop profiling
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public EnemySpawner getEnemySpawner() {
+        return enemySpawner;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return How far into the tick the player was caught, from 0 (start) to 1 (end), or -1
+     *         if the player has not been caught this round
+     */
+    public float getTimeOfImpact() {
+        return timeOfImpact;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public boolean isPlayerAlive() {
+        return isPlayerAlive;
+    }
+
+    public float getWorldWidth() {
+        return worldWidth;
+    }
+
+    public float getWorldHeight() {
+        return worldHeight;
+    }
+}
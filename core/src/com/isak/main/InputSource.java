@@ -0,0 +1,19 @@
+package com.isak.main;
+
+public interface InputSource {
+
+    /**
+     * @return True if the player is touching the screen this tick
+     */
+    boolean isTouched();
+
+    /**
+     * @return Touch x position in world pixels
+     */
+    float getTouchX();
+
+    /**
+     * @return Touch y position in world pixels
+     */
+    float getTouchY();
+}
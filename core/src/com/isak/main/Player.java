@@ -1,18 +1,15 @@
 package com.isak.main;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Circle;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.math.Vector3;
 
 public class Player {
     private Vector2 playerPos;
+    private Vector2 playerPrevPos;
     private Vector2 playerVel;
     private Vector2 playerAcc;
     private Sprite playerSprite;
@@ -22,9 +19,9 @@ public class Player {
     private int playerAccConstant; //Higher is slower
     private int playerAccFriction; //Higher is less friction
     private String playerImagePath;
-
-    private SpriteBatch batch;
-    private ShapeRenderer shapeRenderer;
+    private TextureCache textureCache;
+    private float worldWidth;
+    private float worldHeight;
 
     /**
      * Constructor for a player with given start position, radius in pixels, acceleration constant,
@@ -34,29 +31,28 @@ public class Player {
      * @param playerAccConstant Acceleration constant (Higher is slower)
      * @param playerAccFriction Friction constant (Higher is less friction)
      * @param playerImagePath Path to the image to use
+     * @param textureCache Cache to get the shared texture from, null when running headless
      */
     public Player(Vector2 playerStartPos, int playerRadius, int playerAccConstant,
-                  int playerAccFriction, String playerImagePath) {
-        this.playerPos = playerStartPos;
+                  int playerAccFriction, String playerImagePath, TextureCache textureCache) {
+        this.playerPos = new Vector2(playerStartPos);
         this.playerRadius = playerRadius;
         this.playerAccConstant = playerAccConstant;
         this.playerAccFriction = playerAccFriction;
         this.playerImagePath = playerImagePath;
-
-        batch = new SpriteBatch();
-        shapeRenderer = new ShapeRenderer();
+        this.textureCache = textureCache;
         setup();
     }
 
     private void setup() {
         //player position and movement setup
-        playerPos = new Vector2(Gdx.graphics.getWidth()/2f, Gdx.graphics.getHeight()/2f);
+        playerPrevPos = new Vector2(playerPos);
         playerVel = new Vector2(0,0);
         playerAcc = new Vector2(0,0);
 
         //player sprite setup
-        Texture playerTexture = new Texture(Gdx.files.internal(playerImagePath));
-        playerSprite = new Sprite(playerTexture);
+        playerSprite = new Sprite();
+        if(textureCache != null) playerSprite.setRegion(textureCache.obtain(playerImagePath));
         playerSprite.setSize(playerRadius*2, playerRadius*2);
         float playerSpriteStartPosX = playerPos.x - playerRadius;
         float playerSpriteStartPosY = playerPos.y - playerRadius;
@@ -74,72 +70,81 @@ public class Player {
      */
     public void reset(Vector2 resetPosition){
         playerPos.set(resetPosition);
+        playerPrevPos.set(resetPosition);
         playerVel.set(0,0);
         playerAcc.set(0,0);
         playerSprite.setRotation(0);
     }
 
     /**
-     * Render the player sprite using SpriteBatch
+     * Submit the player sprite to the sprite layer, placed between the previous and current tick
+     * @param renderPipeline Pipeline to submit to
+     * @param alpha Interpolation between previous (0) and current (1) tick position
      */
-    public void render() {
-        batch.begin();
-        playerSprite.draw(batch);
-        batch.end();
+    public void render(RenderPipeline renderPipeline, float alpha) {
+        playerSprite.setPosition(MathUtils.lerp(playerPrevPos.x, playerPos.x, alpha) - playerRadius,
+                MathUtils.lerp(playerPrevPos.y, playerPos.y, alpha) - playerRadius);
+        renderPipeline.draw(playerSprite);
     }
 
     /**
-     * Draw collider
+     * Submit the collider to the debug layer
+     * @param renderPipeline Pipeline to submit to
      */
-    public void drawCollider(){
-		shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
-		shapeRenderer.setColor(Color.GREEN);
-		shapeRenderer.circle(playerPos.x, playerPos.y, playerCollision.radius);
-		shapeRenderer.end();
+    public void drawCollider(RenderPipeline renderPipeline){
+        ShapeRenderer shapeRenderer = renderPipeline.debugShapes();
+        shapeRenderer.setColor(Color.GREEN);
+        shapeRenderer.circle(playerPos.x, playerPos.y, playerCollision.radius);
     }
     /**
-     * Draw radius
+     * Submit the radius to the debug layer
+     * @param renderPipeline Pipeline to submit to
      */
-    public void drawRadius(){
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
+    public void drawRadius(RenderPipeline renderPipeline){
+        ShapeRenderer shapeRenderer = renderPipeline.debugShapes();
         shapeRenderer.setColor(Color.WHITE);
         shapeRenderer.circle(playerPos.x, playerPos.y, playerRadius);
-        shapeRenderer.end();
     }
 
-
     /**
-     * Move player towards (touchPosX, touchPosY) using the acceleration constant, add friction
-     * based on the current velocity, also move collision and sprite with the player position
-     * @param touchPosX The x position to move the player
-     * @param touchPosY The y position to move the player
+     * Submit the velocity as a line from the player centre to the debug layer
+     * @param renderPipeline Pipeline to submit to
+     * @param scale Number of reference ticks the line shows the movement of
      */
-    public void movement(float touchPosX, float touchPosY) {
-        movement(new Vector2(touchPosX, touchPosY));
+    public void drawVelocity(RenderPipeline renderPipeline, float scale){
+        ShapeRenderer shapeRenderer = renderPipeline.debugShapes();
+        shapeRenderer.setColor(Color.YELLOW);
+        shapeRenderer.line(playerPos.x, playerPos.y,
+                playerPos.x + playerVel.x * scale, playerPos.y + playerVel.y * scale);
     }
 
+
     /**
-     * Move player towards touchPos using the acceleration constant, add friction based
-     * on the current velocity, also move collision and sprite with the player position
-     * @param touchPos The position to move the player
+     * Move player towards (touchPosX, touchPosY) using the acceleration constant, add friction
+     * based on the current velocity, also move collision with the player position
+     * @param touchPosX The x position to move the player
+     * @param touchPosY The y position to move the player
+     * @param isTouched True if the player is touching the screen
+     * @param delta Tick length in seconds
      */
-    public void movement(Vector2 touchPos) {
-        if(Gdx.input.isTouched()) {
+    public void movement(float touchPosX, float touchPosY, boolean isTouched, float delta) {
+        float stepScale = FixedTimestep.stepScale(delta);
+        playerPrevPos.set(playerPos);
+        if(isTouched) {
             //Move player towards touchPos
-            playerAcc.set((touchPos.x - playerPos.x) / playerAccConstant,
-                    (touchPos.y - playerPos.y)/ playerAccConstant);
-            playerVel.set(playerVel.x + playerAcc.x, playerVel.y + playerAcc.y);
-            playerPos.set(playerPos.x + playerVel.x, playerPos.y + playerVel.y);
+            playerAcc.set((touchPosX - playerPos.x) / playerAccConstant,
+                    (touchPosY - playerPos.y)/ playerAccConstant);
+            playerVel.set(playerVel.x + playerAcc.x * stepScale, playerVel.y + playerAcc.y * stepScale);
+            playerPos.set(playerPos.x + playerVel.x * stepScale, playerPos.y + playerVel.y * stepScale);
         }
 
         //Add friction depending on velocity
         playerAcc.set(-playerVel.x/playerAccFriction, -playerVel.y/playerAccFriction);
-        playerVel.set(playerVel.x + playerAcc.x, playerVel.y + playerAcc.y);
-        playerPos.set(playerPos.x + playerVel.x, playerPos.y + playerVel.y);
+        playerVel.set(playerVel.x + playerAcc.x * stepScale, playerVel.y + playerAcc.y * stepScale);
+        playerPos.set(playerPos.x + playerVel.x * stepScale, playerPos.y + playerVel.y * stepScale);
 
-        //Move player collision and sprite with the player pos
+        //Move player collision with the player pos, the sprite follows when rendered
         playerCollision.setPosition(playerPos);
-        playerSprite.setPosition(playerPos.x - playerRadius, playerPos.y - playerRadius);
         //Set sprite rotation
         if (playerVel.x != 0) {
             float rotation = MathUtils.atan2(playerVel.y, playerVel.x) / MathUtils.PI2 * 360;
@@ -147,33 +152,77 @@ public class Player {
         }
     }
 
+    /**
+     * Move player towards touchPos using the acceleration constant, add friction based
+     * on the current velocity, also move collision with the player position
+     * @param touchPos The position to move the player
+     * @param isTouched True if the player is touching the screen
+     * @param delta Tick length in seconds
+     */
+    public void movement(Vector2 touchPos, boolean isTouched, float delta) {
+        movement(touchPos.x, touchPos.y, isTouched, delta);
+    }
+
     /**
      * If player hits wall bounce on the wall, and to not get stuck in the wall place the player
      * next to the wall if it tries to jump past them
      */
     public void checkIfHitWall() {
         //Check walls for player, bounce if hit
-        if(playerPos.x + playerRadius > Gdx.graphics.getWidth()
+        if(playerPos.x + playerRadius > worldWidth
                 || playerPos.x - playerRadius < 0) playerVel.set(-playerVel.x, playerVel.y);
-        if(playerPos.y + playerRadius > Gdx.graphics.getHeight()
+        if(playerPos.y + playerRadius > worldHeight
                 || playerPos.y - playerRadius < 0) playerVel.set(playerVel.x, -playerVel.y);
 
         //If trying to move past the right wall
-        if(playerPos.x + playerRadius > Gdx.graphics.getWidth())
-            playerPos.set(Gdx.graphics.getWidth() - playerRadius , playerPos.y);
+        if(playerPos.x + playerRadius > worldWidth)
+            playerPos.set(worldWidth - playerRadius , playerPos.y);
         //Left wall
         if(playerPos.x - playerRadius < 0) playerPos.set(playerRadius, playerPos.y);
         //Top wall
-        if (playerPos.y + playerRadius > Gdx.graphics.getHeight())
-            playerPos.set(playerPos.x, Gdx.graphics.getHeight() - playerRadius);
+        if (playerPos.y + playerRadius > worldHeight)
+            playerPos.set(playerPos.x, worldHeight - playerRadius);
         //Bottom wall
         if(playerPos.y - playerRadius < 0) playerPos.set(playerPos.x, playerRadius);
     }
 
+    /**
+     * Release the shared texture, the player can not be rendered after this
+     */
+    public void dispose(){
+        if(textureCache != null) textureCache.release(playerImagePath);
+    }
+
+    /**
+     * Set the size of the area the player bounces inside
+     * @param worldWidth Width in pixels
+     * @param worldHeight Height in pixels
+     */
+    public void setWorldSize(float worldWidth, float worldHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+    }
+
     public Vector2 getPlayerPos() {
         return playerPos;
     }
 
+    public Vector2 getPlayerPrevPos() {
+        return playerPrevPos;
+    }
+
+    public float getRotation() {
+        return playerSprite.getRotation();
+    }
+
+    public int getPlayerRadius() {
+        return playerRadius;
+    }
+
+    public Vector2 getPlayerVel() {
+        return playerVel;
+    }
+
     public Circle getPlayerCollision() {
         return playerCollision;
     }
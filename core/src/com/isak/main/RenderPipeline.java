@@ -0,0 +1,274 @@
+package com.isak.main;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+
+public class RenderPipeline implements Disposable {
+
+    public enum Layer { NONE, SPRITES, DEBUG, HUD }
+
+    //Buffer sizes, the libGDX defaults, and the vertex sizes used for the memory estimate.
+    //SpriteBatch indexes its vertices with shorts, 8191 sprites is the most one batch holds
+    private static final int BATCH_SPRITES = 1000;
+    private static final int MAX_BATCH_SPRITES = 8191;
+    private static final int SPRITE_VERTEX_BYTES = 20; //Position, packed color, texture coordinates
+    private static final int SHAPE_VERTICES = 5000;
+    private static final int SHAPE_VERTEX_BYTES = 16; //Position, packed color
+
+    private ResourceTracker resourceTracker;
+    private CountingBatch batch;
+    private int batchSprites;
+    private ShapeRenderer shapeRenderer;
+    private Layer currentLayer;
+
+    //Counters for the current frame, the batch counts its texture switches itself
+    private int flushes;
+    private int renderCalls;
+    private int frameStartTextureSwitches;
+    //Counters for the last finished frame
+    private int lastFlushes;
+    private int lastRenderCalls;
+    private int lastTextureBinds;
+
+    /**
+     * Constructor for the render pipeline, owns the only SpriteBatch and ShapeRenderer of the game.
+     * Every frame is drawn as a sprite layer, a debug shape layer and a HUD layer, each one
+     * begun and flushed once. The batch starts out with room for the libGDX default of 1000
+     * sprites, see setSpriteCapacity
+     * @param resourceTracker Tracker the batch and shape renderer are registered with and
+     *                        disposed through
+     */
+    public RenderPipeline(ResourceTracker resourceTracker){
+        this.resourceTracker = resourceTracker;
+        createBatch(BATCH_SPRITES);
+        shapeRenderer = resourceTracker.track(new ShapeRenderer(SHAPE_VERTICES),
+                ResourceTracker.Kind.SHAPE_RENDERER, SHAPE_VERTICES * SHAPE_VERTEX_BYTES);
+        currentLayer = Layer.NONE;
+    }
+
+    /**
+     * Make room for a number of sprites in the batch, so a sprite layer with that many sprites is
+     * drawn with one draw call. Never goes below the default of 1000 or above 8191, the most
+     * one SpriteBatch holds. Above that the batch flushes whenever it is full, so a bigger
+     * layer is split into one draw call per 8191 sprites. The batch is replaced, so call this
+     * before anything holds on to getBatch(), like a Stage, and outside of a frame
+     * @param sprites Number of sprites the largest layer draws
+     */
+    public void setSpriteCapacity(int sprites){
+        int size = MathUtils.clamp(sprites, BATCH_SPRITES, MAX_BATCH_SPRITES);
+        if(size == batchSprites) return;
+        resourceTracker.dispose(batch);
+        createBatch(size);
+    }
+
+    private void createBatch(int size){
+        batchSprites = size;
+        batch = resourceTracker.track(new CountingBatch(size), ResourceTracker.Kind.SPRITE_BATCH,
+                size * (4 * SPRITE_VERTEX_BYTES + 6 * 2));
+    }
+
+    /**
+     * Start a new frame and reset the per frame counters
+     * @param projection Projection matrix used by the sprite and debug layers
+     */
+    public void beginFrame(Matrix4 projection){
+        batch.setProjectionMatrix(projection);
+        shapeRenderer.setProjectionMatrix(projection);
+        flushes = 0;
+        renderCalls = 0;
+        frameStartTextureSwitches = batch.textureSwitches;
+    }
+
+    /**
+     * Flush the open layer and store the counters of the frame
+     */
+    public void endFrame(){
+        flush();
+        lastFlushes = flushes;
+        lastRenderCalls = renderCalls;
+        lastTextureBinds = batch.textureSwitches - frameStartTextureSwitches;
+    }
+
+    /**
+     * Submit a sprite to the sprite layer
+     * @param sprite Sprite to draw
+     */
+    public void draw(Sprite sprite){
+        switchLayer(Layer.SPRITES);
+        sprite.draw(batch);
+    }
+
+    /**
+     * Submit a rotated region to the sprite layer
+     * @param region Region to draw
+     * @param x Lower left x position
+     * @param y Lower left y position
+     * @param originX Rotation origin relative to x
+     * @param originY Rotation origin relative to y
+     * @param width Width in pixels
+     * @param height Height in pixels
+     * @param rotation Rotation in degrees
+     */
+    public void draw(TextureRegion region, float x, float y, float originX, float originY,
+                     float width, float height, float rotation){
+        switchLayer(Layer.SPRITES);
+        batch.draw(region, x, y, originX, originY, width, height, 1, 1, rotation);
+    }
+
+    /**
+     * Submit a region to the sprite layer without blending, for images that cover everything
+     * behind them like a cached frame
+     * @param region Region to draw
+     * @param x Lower left x position
+     * @param y Lower left y position
+     * @param width Width in pixels
+     * @param height Height in pixels
+     */
+    public void drawBackground(TextureRegion region, float x, float y, float width, float height){
+        switchLayer(Layer.SPRITES);
+        batch.disableBlending();
+        batch.draw(region, x, y, width, height);
+        batch.enableBlending();
+    }
+
+    /**
+     * Get the debug layer ShapeRenderer, already begun with ShapeType.Line
+     * @return ShapeRenderer to submit debug shapes to
+     */
+    public ShapeRenderer debugShapes(){
+        switchLayer(Layer.DEBUG);
+        return shapeRenderer;
+    }
+
+    /**
+     * Get the HUD layer SpriteBatch, already begun
+     * @return SpriteBatch to draw HUD text and images with
+     */
+    public SpriteBatch hud(){
+        switchLayer(Layer.HUD);
+        return batch;
+    }
+
+    /**
+     * Draw a semi-transparent rectangle over the whole screen, part of the HUD
+     * @param r Red
+     * @param g Green
+     * @param b Blue
+     * @param a Alpha
+     */
+    public void drawOverlay(float r, float g, float b, float a){
+        drawRect(0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight(), r, g, b, a);
+    }
+
+    /**
+     * Draw a filled, possibly semi-transparent rectangle, part of the HUD
+     * @param x Left edge in pixels
+     * @param y Bottom edge in pixels
+     * @param width Width in pixels
+     * @param height Height in pixels
+     * @param r Red
+     * @param g Green
+     * @param b Blue
+     * @param a Alpha
+     */
+    public void drawRect(float x, float y, float width, float height, float r, float g, float b, float a){
+        flush();
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        shapeRenderer.setColor(r, g, b, a);
+        shapeRenderer.rect(x, y, width, height);
+        shapeRenderer.end();
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+        flushes++;
+        renderCalls++;
+    }
+
+    /**
+     * End the open layer, if any, so something else (like a Stage) can draw
+     */
+    public void flush(){
+        switch (currentLayer) {
+            case SPRITES:
+            case HUD:
+                batch.end();
+                renderCalls += batch.renderCalls;
+                flushes++;
+                break;
+            case DEBUG:
+                shapeRenderer.end();
+                renderCalls++;
+                flushes++;
+                break;
+            default:
+                break;
+        }
+        currentLayer = Layer.NONE;
+    }
+
+    private void switchLayer(Layer layer){
+        if(currentLayer == layer) return;
+        flush();
+        switch (layer) {
+            case SPRITES:
+            case HUD:
+                batch.begin();
+                break;
+            case DEBUG:
+                shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
+                break;
+            default:
+                break;
+        }
+        currentLayer = layer;
+    }
+
+    @Override
+    public void dispose(){
+        resourceTracker.dispose(batch);
+        resourceTracker.dispose(shapeRenderer);
+    }
+
+    public SpriteBatch getBatch() {
+        return batch;
+    }
+
+    public int getFlushes() {
+        return lastFlushes;
+    }
+
+    public int getRenderCalls() {
+        return lastRenderCalls;
+    }
+
+    public int getTextureBinds() {
+        return lastTextureBinds;
+    }
+
+    /**
+     * SpriteBatch that counts every change of texture, whoever draws with it: the sprite layer,
+     * HUD text or a Stage. Each change flushes the batch and binds the new texture
+     */
+    private static class CountingBatch extends SpriteBatch {
+
+        private int textureSwitches;
+
+        CountingBatch(int size){
+            super(size);
+        }
+
+        @Override
+        protected void switchTexture(Texture texture){
+            super.switchTexture(texture);
+            textureSwitches++;
+        }
+    }
+}
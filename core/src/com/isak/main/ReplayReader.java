@@ -0,0 +1,240 @@
+package com.isak.main;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class ReplayReader implements InputSource {
+
+    private InputStream in;
+    private long seed;
+    private float tickLength;
+    private float worldWidth;
+    private float worldHeight;
+    private GameConfig config;
+
+    private boolean hasEnded;
+    private long ticks;
+    private long recordedTicks = -1;
+    private int recordedScore = -1;
+    private int run;
+    private int x;
+    private int y;
+
+    //What the simulation reads this tick
+    private boolean touched;
+    private float touchX;
+    private float touchY;
+
+    /**
+     * Constructor for a replay reader, reads the header right away. The reader is the input of
+     * a world created from getSeed(), getConfig() and the world size, tick() before every step
+     * @param in Replay written by ReplayRecorder, should be buffered
+     * @throws IOException If the stream can not be read or is not a replay
+     */
+    public ReplayReader(InputStream in) throws IOException {
+        this.in = in;
+        if(readInt() != ReplayRecorder.MAGIC) throw new IOException("Not a replay");
+        long version = readVarint();
+        if(version < 1 || version > ReplayRecorder.VERSION) throw new IOException("Unknown replay version " + version);
+        seed = readLong();
+        tickLength = Float.intBitsToFloat(readInt());
+        worldWidth = Float.intBitsToFloat(readInt());
+        worldHeight = Float.intBitsToFloat(readInt());
+        config = new GameConfig();
+        config.playerRadius = (int) readVarint();
+        config.playerAccConstant = (int) readVarint();
+        config.playerAccFriction = (int) readVarint();
+        config.enemyRadius = (int) readVarint();
+        config.enemyStartSpeed = Float.intBitsToFloat(readInt());
+        config.enemySpeedIncrease = Float.intBitsToFloat(readInt());
+        config.enemyMaxSpeed = Float.intBitsToFloat(readInt());
+        config.maxNumberEnemies = (int) readVarint();
+        int flags = (int) readVarint();
+        config.enemySwarmMode = (flags & 1) != 0;
+        config.enemyCollisions = (flags & 2) != 0;
+        //Replays from before swept collision do not set it and play back with the discrete test
+        config.sweptCollision = (flags & 4) != 0;
+        config.pixelCollision = (flags & 8) != 0;
+        //Version 1 replays are from before the behaviour mix, every enemy flew straight
+        if(version >= 2) {
+            config.enemySeekShare = Float.intBitsToFloat(readInt());
+            config.enemyFlockShare = Float.intBitsToFloat(readInt());
+        }
+        //Before version 3 every despawn was refilled at once and sped up the enemies
+        config.maxSpawnsPerTick = 0;
+        config.waves = null;
+        if(version >= 3) {
+            config.maxSpawnsPerTick = (int) readVarint();
+            int points = (int) readVarint();
+            if(points > 0) {
+                float[] times = new float[points];
+                int[] enemies = new int[points];
+                float[] speeds = new float[points];
+                for (int i = 0; i < points; i++){
+                    times[i] = Float.intBitsToFloat(readInt());
+                    enemies[i] = (int) readVarint();
+                    speeds[i] = Float.intBitsToFloat(readInt());
+                }
+                config.waves = new WaveCurve(times, enemies, speeds);
+            }
+        }
+    }
+
+    /**
+     * Create a world set up like the recorded one and start the round with the recorded seed
+     * @param textureCache Cache for the sprite textures, null when running headless
+     * @param maskCache Sprite masks, needed to play back replays recorded with pixelCollision
+     * @return World driven by this reader
+     */
+    public GameWorld createWorld(TextureCache textureCache, CollisionMaskCache maskCache){
+        GameWorld world = new GameWorld(worldWidth, worldHeight, config, this, seed, textureCache);
+        world.setCollisionMasks(maskCache);
+        world.reset(seed);
+        return world;
+    }
+
+    /**
+     * Read the input for the next tick
+     * @return False if the replay has ended, the world should not be stepped then
+     */
+    public boolean tick(){
+        if(hasEnded) return false;
+        try {
+            if(run == 0 && !readToken()) {
+                hasEnded = true;
+                return false;
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not read replay", e);
+        }
+        run--;
+        ticks++;
+        return true;
+    }
+
+    private boolean readToken() throws IOException {
+        //Everything of a token is read before any of it is used, so a replay cut off anywhere,
+        //like from a crash between two chunk writes, plays until the last whole token
+        long token;
+        long endTicks = -1;
+        int endScore = -1;
+        int deltaX = 0;
+        int deltaY = 0;
+        try {
+            token = readVarint();
+            if(token == 0) {
+                endTicks = readVarint();
+                endScore = (int) readVarint();
+            }
+            else if((token & 2) != 0) {
+                deltaX = unzigzag((int) readVarint());
+                deltaY = unzigzag((int) readVarint());
+            }
+        } catch (EOFException e) {
+            return false;
+        }
+        if(token == 0) {
+            recordedTicks = endTicks;
+            recordedScore = endScore;
+            return false;
+        }
+        run = (int) (token >>> 2);
+        touched = (token & 1) != 0;
+        if((token & 2) != 0) {
+            x += deltaX;
+            y += deltaY;
+            touchX = x / ReplayRecorder.POSITION_SCALE;
+            touchY = y / ReplayRecorder.POSITION_SCALE;
+        }
+        return true;
+    }
+
+    private int readByte() throws IOException {
+        int value = in.read();
+        if(value < 0) throw new EOFException();
+        return value;
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7){
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private int readInt() throws IOException {
+        return readByte() << 24 | readByte() << 16 | readByte() << 8 | readByte();
+    }
+
+    private long readLong() throws IOException {
+        return (long) readInt() << 32 | (readInt() & 0xFFFFFFFFL);
+    }
+
+    private static int unzigzag(int value){
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @return True if the replay ended with the end marker, false if it was cut off or is still playing
+     */
+    public boolean isComplete() {
+        return recordedTicks >= 0;
+    }
+
+    public boolean hasEnded() {
+        return hasEnded;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public float getTickLength() {
+        return tickLength;
+    }
+
+    public float getWorldWidth() {
+        return worldWidth;
+    }
+
+    public float getWorldHeight() {
+        return worldHeight;
+    }
+
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getRecordedTicks() {
+        return recordedTicks;
+    }
+
+    public int getRecordedScore() {
+        return recordedScore;
+    }
+
+    @Override
+    public boolean isTouched() {
+        return touched;
+    }
+
+    @Override
+    public float getTouchX() {
+        return touchX;
+    }
+
+    @Override
+    public float getTouchY() {
+        return touchY;
+    }
+}
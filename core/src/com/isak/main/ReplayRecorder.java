@@ -0,0 +1,310 @@
+package com.isak.main;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+public class ReplayRecorder implements InputSource, Disposable {
+
+    /**
+     * First four bytes of every replay, "RPLY"
+     */
+    public static final int MAGIC = 0x52504C59;
+    public static final int VERSION = 3;
+    /**
+     * Touch positions are stored in 1/8 pixels, the simulation is fed the same rounded value
+     * during recording and playback so a replay plays out exactly like the session
+     */
+    public static final float POSITION_SCALE = 8;
+
+    private static class Chunk {
+        OutputStream out;
+        byte[] data;
+        int length;
+        boolean close;
+        boolean stop;
+    }
+
+    private InputSource source;
+    private BlockingQueue<Chunk> freeChunks;
+    private BlockingQueue<Chunk> filledChunks;
+    private Thread writerThread;
+    private volatile IOException writeError;
+
+    //Encoder state, only touched by the render thread
+    private Chunk chunk;
+    private OutputStream out;
+    private boolean isRecording;
+    private long ticks;
+    private boolean pendingTouched;
+    private int pendingX;
+    private int pendingY;
+    private int pendingRun;
+    private int writtenX;
+    private int writtenY;
+
+    //What the simulation reads this tick
+    private boolean touched;
+    private float touchX;
+    private float touchY;
+
+    /**
+     * Constructor for a replay recorder that sits between the real input and the simulation.
+     * Every tick the input is rounded, handed to the simulation and appended to the replay as
+     * run length, delta and varint encoded touch state. Full chunks are written to disk by a
+     * background thread so recording never waits for the file system
+     * @param source Input to record
+     * @param chunkSize Bytes per chunk handed to the writer thread
+     * @param chunks Number of chunks, the recorder waits for the writer if all are in flight
+     */
+    public ReplayRecorder(InputSource source, int chunkSize, int chunks){
+        this.source = source;
+        freeChunks = new ArrayBlockingQueue<>(chunks);
+        filledChunks = new ArrayBlockingQueue<>(chunks + 1);
+        for (int i = 0; i < chunks; i++){
+            Chunk chunk = new Chunk();
+            chunk.data = new byte[chunkSize];
+            freeChunks.add(chunk);
+        }
+        writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeChunks();
+            }
+        }, "replay-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    private void writeChunks(){
+        while(true) {
+            Chunk chunk;
+            try {
+                chunk = filledChunks.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if(chunk.stop) return;
+            try {
+                if(chunk.length > 0) chunk.out.write(chunk.data, 0, chunk.length);
+                if(chunk.close) chunk.out.close();
+            } catch (IOException e) {
+                writeError = e;
+            }
+            chunk.out = null;
+            chunk.length = 0;
+            chunk.close = false;
+            freeChunks.add(chunk);
+        }
+    }
+
+    /**
+     * Start recording a new round, call right after the world is reset with the same seed
+     * @param out Where the replay is written, closed by the writer thread when the round ends
+     * @param seed Seed the world was reset with
+     * @param tickLength Length of a tick in seconds
+     * @param worldWidth Width of the world in pixels
+     * @param worldHeight Height of the world in pixels
+     * @param config Settings the world was created with
+     */
+    public void begin(OutputStream out, long seed, float tickLength, float worldWidth,
+                      float worldHeight, GameConfig config){
+        if(isRecording) end(0);
+        this.out = out;
+        chunk = takeChunk();
+        isRecording = true;
+        ticks = 0;
+        pendingRun = 0;
+        pendingX = 0;
+        pendingY = 0;
+        writtenX = 0;
+        writtenY = 0;
+
+        writeInt(MAGIC);
+        writeVarint(VERSION);
+        writeLong(seed);
+        writeInt(Float.floatToIntBits(tickLength));
+        writeInt(Float.floatToIntBits(worldWidth));
+        writeInt(Float.floatToIntBits(worldHeight));
+        writeVarint(config.playerRadius);
+        writeVarint(config.playerAccConstant);
+        writeVarint(config.playerAccFriction);
+        writeVarint(config.enemyRadius);
+        writeInt(Float.floatToIntBits(config.enemyStartSpeed));
+        writeInt(Float.floatToIntBits(config.enemySpeedIncrease));
+        writeInt(Float.floatToIntBits(config.enemyMaxSpeed));
+        writeVarint(config.maxNumberEnemies);
+        writeVarint((config.enemySwarmMode ? 1 : 0) | (config.enemyCollisions ? 2 : 0)
+                | (config.sweptCollision ? 4 : 0) | (config.pixelCollision ? 8 : 0));
+        //Since version 2
+        writeInt(Float.floatToIntBits(config.enemySeekShare));
+        writeInt(Float.floatToIntBits(config.enemyFlockShare));
+        //Since version 3, the wave curve is stored whole so a replay does not depend on the file
+        writeVarint(config.maxSpawnsPerTick);
+        WaveCurve waves = config.waves;
+        writeVarint(waves == null ? 0 : waves.getPointCount());
+        for (int i = 0; waves != null && i < waves.getPointCount(); i++){
+            writeInt(Float.floatToIntBits(waves.getPointTime(i)));
+            writeVarint(waves.getPointEnemies(i));
+            writeInt(Float.floatToIntBits(waves.getPointSpeed(i)));
+        }
+    }
+
+    /**
+     * Sample the input for the next tick, call once before every world step. The sample is
+     * recorded if a round is being recorded
+     */
+    public void tick(){
+        touched = source.isTouched();
+        int x = Math.round(source.getTouchX() * POSITION_SCALE);
+        int y = Math.round(source.getTouchY() * POSITION_SCALE);
+        //Not touching ignores the position, so the last one is kept and nothing is stored
+        if(touched) {
+            touchX = x / POSITION_SCALE;
+            touchY = y / POSITION_SCALE;
+        }
+        if(!isRecording) return;
+        ticks++;
+        if(!touched) {
+            x = pendingX;
+            y = pendingY;
+        }
+        if(pendingRun > 0 && touched == pendingTouched && x == pendingX && y == pendingY) {
+            pendingRun++;
+            return;
+        }
+        writePending();
+        pendingTouched = touched;
+        pendingX = x;
+        pendingY = y;
+        pendingRun = 1;
+    }
+
+    //Token: varint of (run << 2 | moved << 1 | touched), then zigzag deltas if moved
+    private void writePending(){
+        if(pendingRun == 0) return;
+        boolean moved = pendingX != writtenX || pendingY != writtenY;
+        writeVarint(pendingRun << 2 | (moved ? 2 : 0) | (pendingTouched ? 1 : 0));
+        if(moved) {
+            writeVarint(zigzag(pendingX - writtenX) & 0xFFFFFFFFL);
+            writeVarint(zigzag(pendingY - writtenY) & 0xFFFFFFFFL);
+            writtenX = pendingX;
+            writtenY = pendingY;
+        }
+    }
+
+    /**
+     * Finish the round and hand the rest of the replay to the writer thread
+     * @param score Score of the round, stored so playback can be checked against it
+     */
+    public void end(int score){
+        if(!isRecording) return;
+        writePending();
+        pendingRun = 0;
+        //A zero token can not be a run, it marks the end
+        writeVarint(0);
+        writeVarint(ticks);
+        writeVarint(score);
+        chunk.close = true;
+        submitChunk();
+        isRecording = false;
+        out = null;
+    }
+
+    private Chunk takeChunk(){
+        try {
+            Chunk chunk = freeChunks.take();
+            chunk.out = out;
+            return chunk;
+        } catch (InterruptedException e) {
+            throw new GdxRuntimeException(e);
+        }
+    }
+
+    private void submitChunk(){
+        filledChunks.add(chunk);
+        chunk = null;
+    }
+
+    private void writeByte(int value){
+        if(chunk.length == chunk.data.length) {
+            submitChunk();
+            chunk = takeChunk();
+        }
+        chunk.data[chunk.length++] = (byte) value;
+    }
+
+    private void writeVarint(long value){
+        while((value & ~0x7FL) != 0) {
+            writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    private void writeInt(int value){
+        writeByte(value >>> 24);
+        writeByte(value >>> 16);
+        writeByte(value >>> 8);
+        writeByte(value);
+    }
+
+    private void writeLong(long value){
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    private static int zigzag(int value){
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * End the round being recorded, if any, and wait for the writer thread to write it
+     */
+    @Override
+    public void dispose(){
+        end(0);
+        Chunk stop = new Chunk();
+        stop.stop = true;
+        filledChunks.add(stop);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isRecording() {
+        return isRecording;
+    }
+
+    /**
+     * @return The last error of the writer thread, or null if every replay was written
+     */
+    public IOException getWriteError() {
+        return writeError;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    @Override
+    public boolean isTouched() {
+        return touched;
+    }
+
+    @Override
+    public float getTouchX() {
+        return touchX;
+    }
+
+    @Override
+    public float getTouchY() {
+        return touchY;
+    }
+}
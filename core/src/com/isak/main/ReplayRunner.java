@@ -0,0 +1,112 @@
+package com.isak.main;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Locale;
+
+public class ReplayRunner {
+
+    private CollisionMaskCache maskCache;
+    private long ticks;
+    private int score;
+    private boolean matches;
+
+    /**
+     * Play a replay headless as fast as possible and check that it ends like the recorded session
+     * @param reader Replay to play
+     * @return True if the player died on the last tick with the recorded score
+     */
+    public boolean play(ReplayReader reader){
+        GameWorld world = reader.createWorld(null, maskCache);
+        while(reader.tick()){
+            world.step(reader.getTickLength());
+        }
+        ticks = reader.getTicks();
+        score = world.getScore();
+        world.dispose();
+        matches = reader.isComplete() && !world.isPlayerAlive()
+                && ticks == reader.getRecordedTicks() && score == reader.getRecordedScore();
+        return matches;
+    }
+
+    /**
+     * @param maskCache Sprite masks for replays recorded with pixelCollision, without them those
+     *                  replays are played with the circles only and may not match
+     */
+    public void setCollisionMasks(CollisionMaskCache maskCache) {
+        this.maskCache = maskCache;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Play every replay in the given files or folders at full speed and report if they still
+     * play out like they were recorded, a repeatable simulation workload for comparing builds
+     * @param args Replay files or folders with .rpl files, default replays. --masks <file> reads
+     *             the sprite masks from the file, otherwise from sprites.masks in the working
+     *             directory if it is there
+     */
+    public static void main(String[] args) throws IOException {
+        ReplayRunner runner = new ReplayRunner();
+        Array<String> paths = new Array<>();
+        File masks = new File("sprites.masks");
+        for (int i = 0; i < args.length; i++){
+            if(args[i].equals("--masks") && i + 1 < args.length) masks = new File(args[++i]);
+            else paths.add(args[i]);
+        }
+        if(paths.size == 0) paths.add("replays");
+        if(masks.exists()) runner.setCollisionMasks(new CollisionMaskCache(new FileHandle(masks)));
+
+        Array<File> files = new Array<>();
+        for(String path : paths){
+            File file = new File(path);
+            File[] children = file.listFiles();
+            if(children == null) {
+                files.add(file);
+                continue;
+            }
+            Arrays.sort(children);
+            for(File child : children){
+                if(child.getName().endsWith(".rpl")) files.add(child);
+            }
+        }
+
+        long totalTicks = 0;
+        long totalNanos = 0;
+        int mismatches = 0;
+        for(File file : files){
+            InputStream in = new BufferedInputStream(new FileInputStream(file));
+            try {
+                ReplayReader reader = new ReplayReader(in);
+                long start = System.nanoTime();
+                boolean matches = runner.play(reader);
+                long nanos = System.nanoTime() - start;
+                totalTicks += runner.getTicks();
+                totalNanos += nanos;
+                if(!matches) mismatches++;
+                System.out.println(String.format(Locale.ROOT, "%s: %d ticks, score %d (recorded %d), %s",
+                        file.getName(), runner.getTicks(), runner.getScore(), reader.getRecordedScore(),
+                        matches ? "ok" : "MISMATCH"));
+            } finally {
+                in.close();
+            }
+        }
+        System.out.println(String.format(Locale.ROOT, "%d replays, %d ticks in %d ms (%.0f ticks/s), %d mismatches",
+                files.size, totalTicks, totalNanos / 1000000, totalTicks / Math.max(totalNanos / 1e9, 1e-9),
+                mismatches));
+        if(mismatches > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,186 @@
+package com.isak.main;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.StringBuilder;
+
+public class ResourceTracker implements Disposable {
+
+    public enum Kind {
+        TEXTURE("texture"),
+        ATLAS("atlas"),
+        SPRITE_BATCH("sprite batch"),
+        SHAPE_RENDERER("shape renderer"),
+        FONT("font"),
+        FRAME_BUFFER("frame buffer"),
+        STAGE("stage"),
+        ASSET_MANAGER("asset manager");
+
+        final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private static class Entry {
+        Kind kind;
+        long bytes;
+    }
+
+    //Live resources in the order they were tracked, disposed in reverse order at shutdown
+    private Array<Disposable> live;
+    private IdentityMap<Disposable, Entry> entries;
+    private int[] liveCounts;
+    private long[] liveBytes;
+    private long tracked;
+    private long disposed;
+
+    /**
+     * Constructor for a registry of every object that holds native or GPU memory. Everything
+     * is disposed through the tracker, so the live counts and estimated native bytes always
+     * show what is still held and nothing is left behind at shutdown
+     */
+    public ResourceTracker(){
+        live = new Array<>();
+        entries = new IdentityMap<>();
+        liveCounts = new int[KINDS.length];
+        liveBytes = new long[KINDS.length];
+    }
+
+    /**
+     * Start tracking a resource
+     * @param resource The resource, can only be tracked once
+     * @param kind What kind of resource it is
+     * @param bytes Estimated native or GPU memory it holds
+     * @return The resource, for chaining with its constructor
+     */
+    public <T extends Disposable> T track(T resource, Kind kind, long bytes){
+        if(entries.containsKey(resource)) throw new GdxRuntimeException("Already tracked: " + resource);
+        Entry entry = new Entry();
+        entry.kind = kind;
+        entry.bytes = bytes;
+        entries.put(resource, entry);
+        live.add(resource);
+        liveCounts[kind.ordinal()]++;
+        liveBytes[kind.ordinal()] += bytes;
+        tracked++;
+        return resource;
+    }
+
+    /**
+     * Stop tracking a resource that its owner disposes, like an asset unloaded from an AssetManager
+     * @param resource The resource
+     */
+    public void untrack(Disposable resource){
+        Entry entry = entries.remove(resource);
+        if(entry == null) throw new GdxRuntimeException("Not tracked: " + resource);
+        live.removeValue(resource, true);
+        liveCounts[entry.kind.ordinal()]--;
+        liveBytes[entry.kind.ordinal()] -= entry.bytes;
+        disposed++;
+    }
+
+    /**
+     * Dispose a resource and stop tracking it
+     * @param resource The resource
+     */
+    public void dispose(Disposable resource){
+        untrack(resource);
+        resource.dispose();
+    }
+
+    /**
+     * Dispose every resource still tracked, newest first so owners go before what they use
+     */
+    @Override
+    public void dispose(){
+        while(live.size > 0) {
+            dispose(live.peek());
+        }
+    }
+
+    public boolean isTracked(Disposable resource){
+        return entries.containsKey(resource);
+    }
+
+    public int getLiveCount(Kind kind){
+        return liveCounts[kind.ordinal()];
+    }
+
+    public int getLiveCount(){
+        return live.size;
+    }
+
+    public long getLiveBytes(Kind kind){
+        return liveBytes[kind.ordinal()];
+    }
+
+    public long getLiveBytes(){
+        long bytes = 0;
+        for(long kindBytes : liveBytes){
+            bytes += kindBytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * Number of resources ever tracked
+     */
+    public long getTracked() {
+        return tracked;
+    }
+
+    /**
+     * Number of resources disposed or untracked
+     */
+    public long getDisposed() {
+        return disposed;
+    }
+
+    /**
+     * Write the live count and estimated KB of every kind that has live resources, one line each.
+     * Only appends ints so no strings are created
+     * @param text Where to write the lines
+     */
+    public void appendSummary(StringBuilder text){
+        for(Kind kind : KINDS){
+            if(liveCounts[kind.ordinal()] == 0) continue;
+            text.append(kind.label).append(' ').append(liveCounts[kind.ordinal()]).append(" (");
+            text.append((int) (liveBytes[kind.ordinal()] / 1024)).append(" KB)\n");
+        }
+    }
+
+    /**
+     * Estimate the GPU memory of a texture from its size and pixel format, without mipmaps
+     * @param texture The texture
+     * @return Estimated bytes
+     */
+    public static long estimateBytes(Texture texture){
+        int bytesPerPixel;
+        Pixmap.Format format = texture.getTextureData().getFormat();
+        switch (format) {
+            case Alpha:
+            case Intensity:
+                bytesPerPixel = 1;
+                break;
+            case LuminanceAlpha:
+            case RGB565:
+            case RGBA4444:
+                bytesPerPixel = 2;
+                break;
+            case RGB888:
+                bytesPerPixel = 3;
+                break;
+            default:
+                bytesPerPixel = 4;
+        }
+        return (long) texture.getWidth() * texture.getHeight() * bytesPerPixel;
+    }
+}
@@ -0,0 +1,38 @@
+package com.isak.main;
+
+import com.badlogic.gdx.utils.StringBuilder;
+
+public class ScoreText {
+
+    private StringBuilder text;
+    private int prefixLength;
+    private int value;
+    private boolean hasValue;
+
+    /**
+     * Constructor for a label followed by a number, like "Score: 123". The text is kept in one
+     * char buffer and only rewritten when the number changes, so drawing it every frame
+     * does not create any strings
+     * @param prefix Text in front of the number
+     */
+    public ScoreText(String prefix){
+        text = new StringBuilder(prefix.length() + 11);
+        text.append(prefix);
+        prefixLength = prefix.length();
+    }
+
+    /**
+     * Get the text for a value
+     * @param value The number to show after the prefix
+     * @return The text, only valid until the next call
+     */
+    public CharSequence get(int value){
+        if(!hasValue || this.value != value) {
+            text.setLength(prefixLength);
+            text.append(value);
+            this.value = value;
+            hasValue = true;
+        }
+        return text;
+    }
+}
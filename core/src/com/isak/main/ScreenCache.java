@@ -0,0 +1,89 @@
+package com.isak.main;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.utils.Disposable;
+
+public class ScreenCache implements Disposable {
+
+    private ResourceTracker resourceTracker;
+    private FrameBuffer frameBuffer;
+    private TextureRegion region;
+    private boolean valid;
+
+    /**
+     * Constructor for a cached copy of the whole screen, for screens that do not change between
+     * frames. The frame buffer is created the first time something is drawn into it, is the size
+     * of the back buffer and is tracked as a FRAME_BUFFER
+     * @param resourceTracker Tracker the frame buffer is registered with and disposed through
+     */
+    public ScreenCache(ResourceTracker resourceTracker){
+        this.resourceTracker = resourceTracker;
+    }
+
+    /**
+     * Start drawing into the cache instead of the screen, a new frame buffer is made if the
+     * back buffer changed size
+     * @param renderPipeline Pipeline to flush before switching, the frame is drawn with it
+     */
+    public void begin(RenderPipeline renderPipeline){
+        int width = Gdx.graphics.getBackBufferWidth();
+        int height = Gdx.graphics.getBackBufferHeight();
+        if(frameBuffer != null && (frameBuffer.getWidth() != width || frameBuffer.getHeight() != height)) {
+            disposeFrameBuffer();
+        }
+        if(frameBuffer == null) {
+            frameBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, width, height, false);
+            resourceTracker.track(frameBuffer, ResourceTracker.Kind.FRAME_BUFFER,
+                    ResourceTracker.estimateBytes(frameBuffer.getColorBufferTexture()));
+            //Frame buffers are stored bottom up
+            region = new TextureRegion(frameBuffer.getColorBufferTexture());
+            region.flip(false, true);
+        }
+        renderPipeline.flush();
+        frameBuffer.begin();
+    }
+
+    /**
+     * Stop drawing into the cache, from now on it can be drawn instead of the frame
+     * @param renderPipeline Pipeline the frame was drawn with, flushed into the cache
+     */
+    public void end(RenderPipeline renderPipeline){
+        renderPipeline.flush();
+        frameBuffer.end();
+        valid = true;
+    }
+
+    /**
+     * Draw the cached frame over the whole screen
+     * @param renderPipeline Pipeline to draw with
+     */
+    public void draw(RenderPipeline renderPipeline){
+        renderPipeline.drawBackground(region, 0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+    }
+
+    /**
+     * Mark the cached frame as out of date, the next frame has to be drawn again
+     */
+    public void invalidate(){
+        valid = false;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    private void disposeFrameBuffer(){
+        resourceTracker.dispose(frameBuffer);
+        frameBuffer = null;
+        region = null;
+        valid = false;
+    }
+
+    @Override
+    public void dispose(){
+        if(frameBuffer != null) disposeFrameBuffer();
+    }
+}
@@ -0,0 +1,167 @@
+package com.isak.main;
+
+import com.badlogic.gdx.utils.Disposable;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+public class SimulationThread implements Disposable {
+
+    public interface TickListener {
+        /**
+         * Called on the simulation thread before every tick, the place to sample input
+         * @param tickTime Time the tick is scheduled for, in System.nanoTime() nanoseconds
+         */
+        void beforeTick(long tickTime);
+    }
+
+    //Set in the ready index when it holds a snapshot the renderer has not taken yet
+    private static final int FRESH = 4;
+
+    private GameWorld world;
+    private InputSource input;
+    private TickListener tickListener;
+    private long tickNanos;
+    private long maxCatchUpNanos;
+
+    //Triple buffer: the simulation writes one snapshot, the renderer reads one and the third is
+    //the latest finished one, so neither side ever waits for the other
+    private WorldSnapshot[] snapshots;
+    private int writeIndex = 0;
+    private int readIndex = 1;
+    private AtomicInteger readyIndex = new AtomicInteger(2);
+
+    private ConcurrentLinkedQueue<Runnable> commands;
+    private Thread thread;
+    private volatile boolean running;
+    private volatile boolean paused;
+
+    /**
+     * Constructor for a simulation that steps a world at a fixed rate on its own thread and
+     * publishes a snapshot after every tick. Once started nothing else may touch the world,
+     * changes go through post()
+     * @param world World to step
+     * @param input Input the world reads, copied into the snapshots
+     * @param tickListener Called before every tick, may be null
+     * @param tickLength Length of a tick in seconds
+     * @param maxCatchUp Longest time in seconds the simulation catches up after falling behind
+     */
+    public SimulationThread(GameWorld world, InputSource input, TickListener tickListener,
+                            float tickLength, float maxCatchUp){
+        this.world = world;
+        this.input = input;
+        this.tickListener = tickListener;
+        tickNanos = (long) (tickLength * 1000000000L);
+        maxCatchUpNanos = (long) (maxCatchUp * 1000000000L);
+        int capacity = world.getEnemySpawner().getMaxNumberEnemies();
+        snapshots = new WorldSnapshot[3];
+        long now = System.nanoTime();
+        for (int i = 0; i < snapshots.length; i++){
+            snapshots[i] = new WorldSnapshot(capacity);
+            snapshots[i].capture(world, input, now);
+        }
+        commands = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Start stepping the world
+     */
+    public void start(){
+        running = true;
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void loop(){
+        long nextTick = System.nanoTime();
+        while(running) {
+            runCommands();
+            long now = System.nanoTime();
+            if(paused) {
+                LockSupport.parkNanos(tickNanos);
+                nextTick = System.nanoTime();
+                continue;
+            }
+            if(now < nextTick) {
+                LockSupport.parkNanos(nextTick - now);
+                continue;
+            }
+            //Drop time instead of running ever more ticks after a long stall
+            if(now - nextTick > maxCatchUpNanos) nextTick = now - maxCatchUpNanos;
+            if(tickListener != null) tickListener.beforeTick(nextTick);
+            world.step(tickNanos / 1e9f);
+            snapshots[writeIndex].capture(world, input, nextTick);
+            writeIndex = readyIndex.getAndSet(writeIndex | FRESH) & 3;
+            nextTick += tickNanos;
+        }
+    }
+
+    private void runCommands(){
+        Runnable command;
+        while((command = commands.poll()) != null) {
+            command.run();
+        }
+    }
+
+    /**
+     * Run something on the simulation thread between two ticks, like resetting the world
+     * @param command What to run
+     */
+    public void post(Runnable command){
+        commands.add(command);
+    }
+
+    /**
+     * Get the newest snapshot, called by the renderer. The snapshot stays unchanged until the
+     * next call
+     * @return The newest snapshot
+     */
+    public WorldSnapshot latest(){
+        if((readyIndex.get() & FRESH) != 0) {
+            readIndex = readyIndex.getAndSet(readIndex) & 3;
+        }
+        return snapshots[readIndex];
+    }
+
+    /**
+     * How far the render time is between the previous and the current tick of a snapshot
+     * @param snapshot Snapshot being drawn
+     * @param now Render time in System.nanoTime() nanoseconds
+     * @return Value between 0 (previous tick) and 1 (current tick)
+     */
+    public float getAlpha(WorldSnapshot snapshot, long now){
+        return Math.max(0, Math.min(1, (now - snapshot.getTime()) / (float) tickNanos));
+    }
+
+    /**
+     * Stop stepping while the app is paused, time spent paused is not simulated
+     * @param paused True to pause
+     */
+    public void setPaused(boolean paused){
+        this.paused = paused;
+    }
+
+    /**
+     * Stop the thread and wait for the tick in progress to finish
+     */
+    @Override
+    public void dispose(){
+        running = false;
+        if(thread == null) return;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        //Commands posted after the last tick, like a final recording end
+        runCommands();
+    }
+}
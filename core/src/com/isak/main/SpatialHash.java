@@ -0,0 +1,143 @@
+package com.isak.main;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+public class SpatialHash {
+
+    private float cellSize;
+    private float originX;
+    private float originY;
+    private int columns;
+    private int rows;
+
+    //Items sorted by cell, the items of cell c are cellItems[cellStart[c]] to cellItems[cellStart[c+1]-1]
+    private int[] cellStart;
+    private int[] cellCursor;
+    private int[] cellItems;
+    private int[] itemCell;
+
+    /**
+     * Constructor for a uniform grid broadphase. Use a cell size of at least the largest
+     * diameter so every overlap is found within the 3x3 cells around an item
+     * @param cellSize Width and height of a cell in pixels
+     */
+    public SpatialHash(float cellSize){
+        this.cellSize = cellSize;
+        cellItems = new int[16];
+        itemCell = new int[16];
+        setBounds(0, 0, cellSize, cellSize);
+    }
+
+    /**
+     * Set the area covered by the grid, items outside it are put in the closest edge cell
+     * @param minX Left edge in pixels
+     * @param minY Bottom edge in pixels
+     * @param maxX Right edge in pixels
+     * @param maxY Top edge in pixels
+     */
+    public void setBounds(float minX, float minY, float maxX, float maxY){
+        originX = minX;
+        originY = minY;
+        columns = Math.max(1, MathUtils.ceil((maxX - minX) / cellSize));
+        rows = Math.max(1, MathUtils.ceil((maxY - minY) / cellSize));
+        //Bounds are set again on every reset, keep the arrays when the grid is the same size
+        if(cellCursor == null || cellCursor.length != columns * rows) {
+            cellStart = new int[columns * rows + 1];
+            cellCursor = new int[columns * rows];
+        }
+    }
+
+    /**
+     * Sort every item into its cell, a counting sort so the cost is linear in the number of items
+     * @param x Item x positions, the length is used as the number of items to make room for
+     * @param y Item y positions
+     * @param count Number of items to use from the arrays
+     */
+    public void rebuild(float[] x, float[] y, int count){
+        //Sized to the whole position array, growing to every new largest count would
+        //allocate each time a round gets more crowded than it has been before
+        if(cellItems.length < count) {
+            cellItems = new int[Math.max(count, x.length)];
+            itemCell = new int[cellItems.length];
+        }
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < count; i++){
+            int cell = cellY(y[i]) * columns + cellX(x[i]);
+            itemCell[i] = cell;
+            cellStart[cell + 1]++;
+        }
+        for (int cell = 0; cell < cellCursor.length; cell++){
+            cellStart[cell + 1] += cellStart[cell];
+            cellCursor[cell] = cellStart[cell];
+        }
+        for (int i = 0; i < count; i++){
+            cellItems[cellCursor[itemCell[i]]++] = i;
+        }
+    }
+
+    /**
+     * Add every item in the cells touched by the bounding box of a circle, the caller does the
+     * exact overlap test
+     * @param x Circle x position
+     * @param y Circle y position
+     * @param r Circle radius plus the radius of the items
+     * @param out Array the item indices are added to
+     */
+    public void query(float x, float y, float r, IntArray out){
+        query(x, y, r, out, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Add the items in the cells touched by the bounding box of a circle until the array holds
+     * a number of items, so a query in a crowded area takes a bounded time
+     * @param x Circle x position
+     * @param y Circle y position
+     * @param r Circle radius plus the radius of the items
+     * @param out Array the item indices are added to
+     * @param limit Size of the array to stop at
+     */
+    public void query(float x, float y, float r, IntArray out, int limit){
+        int minCellX = cellX(x - r), maxCellX = cellX(x + r);
+        int minCellY = cellY(y - r), maxCellY = cellY(y + r);
+        for (int cy = minCellY; cy <= maxCellY; cy++){
+            for (int cx = minCellX; cx <= maxCellX; cx++){
+                int cell = cy * columns + cx;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++){
+                    if(out.size >= limit) return;
+                    out.add(cellItems[k]);
+                }
+            }
+        }
+    }
+
+    private int cellX(float x){
+        return MathUtils.clamp((int) ((x - originX) / cellSize), 0, columns - 1);
+    }
+
+    private int cellY(float y){
+        return MathUtils.clamp((int) ((y - originY) / cellSize), 0, rows - 1);
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    public float getOriginX() {
+        return originX;
+    }
+
+    public float getOriginY() {
+        return originY;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,237 @@
+package com.isak.main;
+
+import com.badlogic.gdx.math.MathUtils;
+
+import java.util.Random;
+
+public class SpawnScheduler {
+
+    //Planned spawns, index i in every array is one spawn. Everything that only needs the random
+    //generator is worked out for a whole batch at once, the speed is applied when it spawns
+    float[] x;
+    float[] y;
+    float[] directionX;
+    float[] directionY;
+    float[] jitterX;
+    float[] jitterY;
+    EnemyBehaviour[] behaviour;
+    private int planned;
+    private int next;
+
+    private Random random;
+    private int enemyRadius;
+    private float worldWidth;
+    private float worldHeight;
+    private float seekShare;
+    private float flockShare;
+
+    //Pacing
+    private int maxEnemies;
+    private int maxSpawnsPerTick;
+    private WaveCurve waves;
+    private float roundTicks;
+    private int roundDespawns;
+
+    //Speed rule without waves, every despawn speeds up the following enemies
+    private float startSpeed;
+    private float speedIncrease;
+    private float maxSpeed;
+    private float currentSpeed;
+
+    /**
+     * Constructor for the scheduler that decides how many enemies spawn every tick and where.
+     * Without a wave curve it keeps maxEnemies flying and speeds up with every despawn, with one
+     * the count and speed follow the curve over the round. With a spawn budget at most that many
+     * enemies spawn in one tick, so refilling after a reset is spread over a few ticks
+     * @param startSpeed Speed the enemies start with
+     * @param speedIncrease The increase in speed per despawn
+     * @param maxSpeed The maximum speed
+     * @param maxEnemies The max number of enemies on screen
+     * @param enemyRadius Radius of the enemies in pixels, they spawn this far outside the world
+     * @param batchSize Number of spawns planned at once
+     */
+    public SpawnScheduler(float startSpeed, float speedIncrease, float maxSpeed, int maxEnemies,
+                          int enemyRadius, int batchSize){
+        this.startSpeed = startSpeed;
+        this.speedIncrease = speedIncrease;
+        this.maxSpeed = maxSpeed;
+        this.maxEnemies = maxEnemies;
+        this.enemyRadius = enemyRadius;
+        currentSpeed = startSpeed;
+        x = new float[batchSize];
+        y = new float[batchSize];
+        directionX = new float[batchSize];
+        directionY = new float[batchSize];
+        jitterX = new float[batchSize];
+        jitterY = new float[batchSize];
+        behaviour = new EnemyBehaviour[batchSize];
+    }
+
+    /**
+     * Move the round clock on by a tick and find how many enemies to spawn in it
+     * @param delta Tick length in seconds
+     * @param currentEnemies Number of enemies flying now
+     * @return Number of enemies to spawn this tick
+     */
+    public int advance(float delta, int currentEnemies){
+        roundTicks += FixedTimestep.stepScale(delta);
+        int missing = getTargetEnemies() - currentEnemies;
+        if(missing <= 0) return 0;
+        return maxSpawnsPerTick > 0 ? Math.min(missing, maxSpawnsPerTick) : missing;
+    }
+
+    /**
+     * Take the next planned spawn, a new batch is planned when the last one is used up
+     * @return Index of the spawn in the plan arrays, valid until the next call
+     */
+    public int nextSpawn(){
+        if(next == planned) planBatch();
+        return next++;
+    }
+
+    //Draws the random numbers in the same order as spawning one enemy at a time did, so
+    //planning ahead does not change what a seed plays out like
+    private void planBatch(){
+        for (int i = 0; i < x.length; i++){
+            //Determine if enemy start above, below, right or left
+            if(random.nextFloat() > 0.5) { //Spawns above or below
+                x[i] = random.nextFloat() * worldWidth;
+                if(random.nextFloat() > 0.5) y[i] = worldHeight + 2*enemyRadius;
+                else y[i] = -2*enemyRadius;
+            }
+            else { //Spawns right or left
+                y[i] = random.nextFloat() * worldHeight;
+                if(random.nextFloat() > 0.5) x[i] = worldWidth + 2*enemyRadius;
+                else x[i] = -2*enemyRadius;
+            }
+            //Angle the enemy towards the center with some randomness
+            float angle = MathUtils.atan2(worldHeight/2f - y[i], worldWidth/2f - x[i]);
+            angle += randomRange(1f) * MathUtils.PI/2;
+            directionX[i] = MathUtils.cos(angle);
+            jitterX[i] = randomRange(0.5f);
+            directionY[i] = MathUtils.sin(angle);
+            jitterY[i] = randomRange(0.5f);
+            //Only drawn with a mix so straight-only runs use the same random numbers
+            behaviour[i] = EnemyBehaviour.STRAIGHT;
+            if(seekShare + flockShare > 0) {
+                float roll = random.nextFloat();
+                if(roll < seekShare) behaviour[i] = EnemyBehaviour.SEEK;
+                else if(roll < seekShare + flockShare) behaviour[i] = EnemyBehaviour.FLOCK;
+            }
+        }
+        planned = x.length;
+        next = 0;
+    }
+
+    private float randomRange(float range){
+        return (random.nextFloat() * 2 - 1) * range;
+    }
+
+    /**
+     * Forget the planned spawns, needed when the random generator is reseeded or the world
+     * changes size
+     */
+    public void discardPlan(){
+        planned = 0;
+        next = 0;
+    }
+
+    /**
+     * Speed up the following enemies, called for every enemy that leaves the world. Ignored
+     * when a wave curve sets the speed
+     */
+    public void enemyDespawned(){
+        roundDespawns++;
+        if(currentSpeed < maxSpeed) currentSpeed += speedIncrease;
+    }
+
+    /**
+     * Start the round clock and the speed over, the planned spawns are kept
+     */
+    public void reset(){
+        roundTicks = 0;
+        roundDespawns = 0;
+        currentSpeed = startSpeed;
+    }
+
+    /**
+     * @return Number of enemies that should be flying now
+     */
+    public int getTargetEnemies(){
+        if(waves == null) return maxEnemies;
+        return Math.min(maxEnemies, waves.getEnemies(getRoundTime()));
+    }
+
+    /**
+     * @return Speed of enemies spawned now, in pixels per reference tick
+     */
+    public float getSpeed(){
+        return waves == null ? currentSpeed : waves.getSpeed(getRoundTime());
+    }
+
+    /**
+     * @return Seconds since the round started, counted in reference ticks so it does not
+     *         depend on the tick rate
+     */
+    public float getRoundTime(){
+        return roundTicks * FixedTimestep.REFERENCE_TICK;
+    }
+
+    /**
+     * @return Number of enemies that left the world since the round started
+     */
+    public int getRoundDespawns(){
+        return roundDespawns;
+    }
+
+    /**
+     * Set the random generator spawns are planned with, the plan is discarded
+     * @param random The random generator
+     */
+    public void setRandom(Random random){
+        this.random = random;
+        discardPlan();
+    }
+
+    /**
+     * Set the size of the area enemies spawn around, the plan is discarded
+     * @param worldWidth Width in pixels
+     * @param worldHeight Height in pixels
+     */
+    public void setWorldSize(float worldWidth, float worldHeight){
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        discardPlan();
+    }
+
+    /**
+     * Set which share of the spawned enemies seek and which flock, the plan is discarded
+     * @param seekShare Share of SEEK enemies from 0 to 1
+     * @param flockShare Share of FLOCK enemies from 0 to 1
+     */
+    public void setBehaviourMix(float seekShare, float flockShare){
+        this.seekShare = seekShare;
+        this.flockShare = flockShare;
+        discardPlan();
+    }
+
+    /**
+     * Let the number of enemies and their speed follow a curve over the round instead of the
+     * speed increase per despawn
+     * @param waves The curve, null for the speed increase per despawn
+     */
+    public void setWaves(WaveCurve waves){
+        this.waves = waves;
+    }
+
+    /**
+     * @param maxSpawnsPerTick Most enemies spawned in one tick, 0 for no limit
+     */
+    public void setMaxSpawnsPerTick(int maxSpawnsPerTick){
+        this.maxSpawnsPerTick = maxSpawnsPerTick;
+    }
+
+    public int getMaxEnemies() {
+        return maxEnemies;
+    }
+}
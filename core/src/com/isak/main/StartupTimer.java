@@ -0,0 +1,94 @@
+package com.isak.main;
+
+import com.badlogic.gdx.utils.StringBuilder;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.Locale;
+
+public class StartupTimer {
+
+    public enum Milestone {
+        CREATE("create"),
+        FIRST_FRAME("first frame"),
+        LOADED("loaded"),
+        INTERACTIVE("interactive");
+
+        final String label;
+
+        Milestone(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final Milestone[] MILESTONES = Milestone.values();
+
+    private long startNanos;
+    private long[] reached;
+
+    /**
+     * Constructor for a timer that records when each startup milestone is first reached, in
+     * milliseconds since the start time
+     * @param startNanos Start of the startup in TimeUtils.nanoTime() nanoseconds, as early as
+     *                   the app can measure it
+     */
+    public StartupTimer(long startNanos){
+        this.startNanos = startNanos;
+        reached = new long[MILESTONES.length];
+    }
+
+    /**
+     * Record a milestone, only the first call for each milestone counts
+     * @param milestone The milestone
+     */
+    public void mark(Milestone milestone){
+        if(reached[milestone.ordinal()] == 0) reached[milestone.ordinal()] = TimeUtils.nanoTime() - startNanos;
+    }
+
+    public boolean isReached(Milestone milestone){
+        return reached[milestone.ordinal()] != 0;
+    }
+
+    /**
+     * @return Milliseconds from the start to the milestone, or -1 if it has not been reached
+     */
+    public float getMillis(Milestone milestone){
+        long nanos = reached[milestone.ordinal()];
+        return nanos == 0 ? -1 : nanos / 1e6f;
+    }
+
+    /**
+     * Append one line per milestone, like "first frame: 120.4 ms"
+     * @param text Where to append
+     */
+    public void appendReport(StringBuilder text){
+        for(Milestone milestone : MILESTONES){
+            text.append(milestone.label).append(": ")
+                    .append(String.format(Locale.ROOT, "%.1f", getMillis(milestone))).append(" ms\n");
+        }
+    }
+
+    /**
+     * Append the header of the csv the startups are collected in
+     * @param text Where to append
+     */
+    public static void appendCsvHeader(StringBuilder text){
+        text.append("time");
+        for(Milestone milestone : MILESTONES){
+            text.append(',').append(milestone.label.replace(' ', '_')).append("_ms");
+        }
+        text.append('\n');
+    }
+
+    /**
+     * Append this startup as one csv row, the wall clock time first so launches can be compared
+     * over time
+     * @param text Where to append
+     */
+    public void appendCsvRow(StringBuilder text){
+        text.append(TimeUtils.millis());
+        for(Milestone milestone : MILESTONES){
+            text.append(',').append(String.format(Locale.ROOT, "%.1f", getMillis(milestone)));
+        }
+        text.append('\n');
+    }
+}
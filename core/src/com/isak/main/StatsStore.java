@@ -0,0 +1,297 @@
+package com.isak.main;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+public class StatsStore implements Disposable {
+
+    public static final int VERSION = 1;
+
+    public static class Session {
+        public long endTime; //Milliseconds since the epoch
+        public float duration; //Seconds of game time
+        public int score;
+        public int enemiesDodged;
+        public float speedReached; //Pixels per reference tick
+    }
+
+    private FileHandle file;
+    private FileHandle tempFile;
+    private int sessionsKept;
+    private long saveDelayMillis;
+    private ScheduledThreadPoolExecutor executor;
+    private Runnable saveTask;
+
+    //Guarded by this, the writer thread and the game threads both use them
+    private Array<Session> sessions;
+    private ObjectIntMap<String> settings;
+    private boolean loaded;
+    private boolean dirty;
+    private boolean savePending;
+    //Read by the HUD every frame, so it can be read without the lock
+    private volatile int highScore;
+
+    /**
+     * Constructor for the store of the high score, the last sessions and the settings. The file
+     * is read on a background thread, so nothing waits for it; until then the high score is 0
+     * and settings have their defaults. Changes are collected for a while and written together
+     * on the same thread, to a temporary file that then replaces the old one, so a crash
+     * mid-write leaves the last complete file behind
+     * @param file File to keep everything in
+     * @param sessionsKept Number of sessions kept, the oldest are dropped
+     * @param saveDelayMillis How long changes are collected before they are written
+     */
+    public StatsStore(FileHandle file, int sessionsKept, long saveDelayMillis){
+        this.file = file;
+        this.sessionsKept = sessionsKept;
+        this.saveDelayMillis = saveDelayMillis;
+        tempFile = file.sibling(file.name() + ".tmp");
+        sessions = new Array<>(sessionsKept + 1);
+        settings = new ObjectIntMap<>();
+        executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "StatsStore");
+                //A stuck write should not keep the app from closing, dispose() waits for it
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        //Delayed saves are dropped on shutdown, dispose() queues one that runs right away
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        saveTask = new Runnable() {
+            @Override
+            public void run() {
+                save();
+            }
+        };
+        //The one thread runs tasks in order, so no save can overwrite the file before it is read
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                load();
+            }
+        });
+    }
+
+    private void load(){
+        Array<Session> loadedSessions = new Array<>();
+        ObjectIntMap<String> loadedSettings = new ObjectIntMap<>();
+        int loadedHighScore = 0;
+        if(file.exists()) {
+            try {
+                JsonValue root = new JsonReader().parse(file);
+                loadedHighScore = root.getInt("highScore", 0);
+                JsonValue savedSettings = root.get("settings");
+                if(savedSettings != null) {
+                    for(JsonValue setting = savedSettings.child; setting != null; setting = setting.next){
+                        loadedSettings.put(setting.name, setting.asInt());
+                    }
+                }
+                JsonValue savedSessions = root.get("sessions");
+                if(savedSessions != null) {
+                    for(JsonValue saved = savedSessions.child; saved != null; saved = saved.next){
+                        Session session = new Session();
+                        session.endTime = saved.getLong("endTime", 0);
+                        session.duration = saved.getFloat("duration", 0);
+                        session.score = saved.getInt("score", 0);
+                        session.enemiesDodged = saved.getInt("enemiesDodged", 0);
+                        session.speedReached = saved.getFloat("speedReached", 0);
+                        loadedSessions.add(session);
+                    }
+                }
+            } catch (RuntimeException e) {
+                //Start over rather than lose every later session, the broken file is kept aside
+                Gdx.app.error("StatsStore", "Could not read " + file.name() + ", starting empty", e);
+                loadedSessions.clear();
+                loadedSettings.clear();
+                loadedHighScore = 0;
+                try {
+                    file.moveTo(file.sibling(file.name() + ".bad"));
+                } catch (GdxRuntimeException ignored) {
+                }
+            }
+        }
+        synchronized (this) {
+            //Anything recorded before the file was read is newer than what was in it
+            loadedSessions.addAll(sessions);
+            sessions.clear();
+            sessions.addAll(loadedSessions);
+            trimSessions();
+            for(ObjectIntMap.Entry<String> setting : loadedSettings){
+                if(!settings.containsKey(setting.key)) settings.put(setting.key, setting.value);
+            }
+            highScore = Math.max(highScore, loadedHighScore);
+            loaded = true;
+        }
+    }
+
+    private void save(){
+        String text;
+        synchronized (this) {
+            savePending = false;
+            if(!dirty) return;
+            dirty = false;
+            text = toJson();
+        }
+        try {
+            write(text);
+        } catch (IOException e) {
+            Gdx.app.error("StatsStore", "Could not write " + file.name(), e);
+            //Try again with the next change
+            synchronized (this) {
+                dirty = true;
+            }
+        }
+    }
+
+    private void write(String text) throws IOException {
+        File target = file.file();
+        File temp = tempFile.file();
+        FileOutputStream out = new FileOutputStream(temp);
+        try {
+            out.write(text.getBytes("UTF-8"));
+            //On disk before the rename, or a crash could leave an empty file under the real name
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+        //Renaming over the old file is atomic everywhere but Windows, which refuses to replace
+        if(!temp.renameTo(target)) {
+            if(!target.delete() || !temp.renameTo(target)) {
+                throw new IOException("Could not replace " + target + " with " + temp);
+            }
+        }
+    }
+
+    private String toJson(){
+        StringWriter text = new StringWriter(256 + sessions.size * 128);
+        JsonWriter json = new JsonWriter(text);
+        json.setOutputType(JsonWriter.OutputType.json);
+        try {
+            json.object();
+            json.set("version", VERSION);
+            json.set("highScore", highScore);
+            json.object("settings");
+            for(ObjectIntMap.Entry<String> setting : settings){
+                json.set(setting.key, setting.value);
+            }
+            json.pop();
+            json.array("sessions");
+            for (int i = 0; i < sessions.size; i++){
+                Session session = sessions.get(i);
+                json.object();
+                json.set("endTime", session.endTime);
+                json.set("duration", session.duration);
+                json.set("score", session.score);
+                json.set("enemiesDodged", session.enemiesDodged);
+                json.set("speedReached", session.speedReached);
+                json.pop();
+            }
+            json.pop();
+            json.pop();
+        } catch (IOException e) {
+            //A StringWriter does not throw
+            throw new IllegalStateException(e);
+        }
+        return text.toString();
+    }
+
+    private void trimSessions(){
+        if(sessions.size > sessionsKept) sessions.removeRange(0, sessions.size - sessionsKept - 1);
+    }
+
+    //Called with the lock held
+    private void changed(){
+        dirty = true;
+        if(savePending) return;
+        savePending = true;
+        executor.schedule(saveTask, saveDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Add a finished session and raise the high score if it was beaten, can be called from any
+     * thread and never waits on the file
+     * @param session The session, not changed afterwards
+     */
+    public synchronized void record(Session session){
+        sessions.add(session);
+        trimSessions();
+        if(session.score > highScore) highScore = session.score;
+        changed();
+    }
+
+    /**
+     * @param key Name of the setting
+     * @param defaultValue Value if it was never set or the file is not read yet
+     * @return The value
+     */
+    public synchronized int getSetting(String key, int defaultValue){
+        return settings.get(key, defaultValue);
+    }
+
+    /**
+     * Change a setting, it is written with the next save
+     * @param key Name of the setting
+     * @param value The value
+     */
+    public synchronized void putSetting(String key, int value){
+        if(settings.containsKey(key) && settings.get(key, 0) == value) return;
+        settings.put(key, value);
+        changed();
+    }
+
+    /**
+     * Write pending changes right away instead of after the delay, without waiting for it.
+     * Call when the app may be killed soon, like when it goes to the background
+     */
+    public void flush(){
+        executor.execute(saveTask);
+    }
+
+    /**
+     * @return True once the file was read, before that the settings are only what was put since
+     */
+    public synchronized boolean isLoaded(){
+        return loaded;
+    }
+
+    public synchronized int getSessionCount(){
+        return sessions.size;
+    }
+
+    public int getHighScore() {
+        return highScore;
+    }
+
+    /**
+     * Write pending changes and stop the writer thread, waits a short while for the write
+     */
+    @Override
+    public void dispose(){
+        flush();
+        executor.shutdown();
+        try {
+            if(!executor.awaitTermination(2, TimeUnit.SECONDS)) {
+                Gdx.app.error("StatsStore", "Gave up waiting for " + file.name() + " to be written");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.isak.main;
+
+public class SweptCollision {
+
+    /**
+     * Find when two circles that move in a straight line during a tick first overlap, so fast
+     * objects can not pass through each other between two ticks. A pair that overlaps at the
+     * end of the tick always counts as a hit, like the discrete test
+     * @param aPrevX X position of a at the start of the tick
+     * @param aPrevY Y position of a at the start of the tick
+     * @param aX X position of a at the end of the tick
+     * @param aY Y position of a at the end of the tick
+     * @param bPrevX X position of b at the start of the tick
+     * @param bPrevY Y position of b at the start of the tick
+     * @param bX X position of b at the end of the tick
+     * @param bY Y position of b at the end of the tick
+     * @param radiusSum Sum of the two radii
+     * @return Time of impact from 0 (start of the tick) to 1 (end of the tick), or -1 if the
+     *         circles do not overlap during the tick
+     */
+    public static float timeOfImpact(float aPrevX, float aPrevY, float aX, float aY,
+                                     float bPrevX, float bPrevY, float bX, float bY,
+                                     float radiusSum){
+        float radiusSum2 = radiusSum * radiusSum;
+        //Distance from a to b at the start, already overlapping is a hit at once
+        float startX = bPrevX - aPrevX, startY = bPrevY - aPrevY;
+        float c = startX * startX + startY * startY - radiusSum2;
+        if(c < 0) return 0;
+        float endX = bX - aX, endY = bY - aY;
+        boolean overlapsAtEnd = endX * endX + endY * endY < radiusSum2;
+
+        //Relative motion, the distance is |start + t*move| so solve |start + t*move|^2 = radiusSum^2
+        float moveX = endX - startX, moveY = endY - startY;
+        float a = moveX * moveX + moveY * moveY;
+        float b = startX * moveX + startY * moveY;
+        //Only approaching pairs can start to overlap
+        if(b < 0 && a > 0) {
+            float discriminant = b * b - a * c;
+            if(discriminant > 0) {
+                float t = (-b - (float) Math.sqrt(discriminant)) / a;
+                if(t <= 1) return Math.max(t, 0);
+            }
+        }
+        //Rounding can put the root just past the end of a pair that does overlap there
+        return overlapsAtEnd ? 1 : -1;
+    }
+}
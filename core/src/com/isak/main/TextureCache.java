@@ -0,0 +1,206 @@
+package com.isak.main;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+
+public class TextureCache implements Disposable {
+
+    private static class Entry {
+        Texture texture; //Null for regions from the atlas
+        TextureRegion region;
+        int references;
+        long bytes;
+    }
+
+    private ObjectMap<String, Entry> entries;
+
+    //Atlas mode, regions share the atlas pages which live as long as any region is referenced
+    private String atlasPath;
+    private AssetManager assetManager; //Owns the atlas if set
+    private TextureAtlas atlas;
+    private int atlasEntries;
+    private long atlasBytes;
+
+    private ResourceTracker resourceTracker;
+
+    private int hits;
+    private int misses;
+    private long liveBytes;
+
+    /**
+     * Constructor for a texture cache that loads every image path once and shares it
+     * between all users, counting references so the texture can be disposed with its last user.
+     * The cache is not thread safe, obtain and release only on the render thread
+     */
+    public TextureCache(){
+        entries = new ObjectMap<>();
+    }
+
+    /**
+     * Constructor for a texture cache that takes every image from a packed atlas, so all sprites
+     * share one texture and can be drawn without texture switches. An image path is looked up
+     * as the region named like the file without folder and extension, which is the name
+     * TexturePacker gives it
+     * @param atlasPath Path to the .atlas file
+     */
+    public TextureCache(String atlasPath){
+        this();
+        this.atlasPath = atlasPath;
+    }
+
+    /**
+     * Constructor for a texture cache that takes every image from a packed atlas loaded by an
+     * AssetManager. Queue the atlas with assetManager.load() up front and it is decoded in the
+     * background, the cache only falls back to loading it on the spot if it is not done yet.
+     * The atlas is unloaded from the manager when its last region is released
+     * @param assetManager Manager to get the atlas from
+     * @param atlasPath Path to the .atlas file
+     */
+    public TextureCache(AssetManager assetManager, String atlasPath){
+        this(atlasPath);
+        this.assetManager = assetManager;
+    }
+
+    /**
+     * Get the region for an image, loading and uploading the texture only on the first request.
+     * Every call must be matched with a call to release(imagePath)
+     * @param imagePath Path to the image
+     * @return Region covering the whole texture
+     */
+    public TextureRegion obtain(String imagePath){
+        Entry entry = entries.get(imagePath);
+        if(entry != null) {
+            hits++;
+        }
+        else if(atlasPath != null) {
+            misses++;
+            entry = new Entry();
+            entry.region = findAtlasRegion(imagePath);
+            atlasEntries++;
+            entries.put(imagePath, entry);
+        }
+        else {
+            misses++;
+            entry = new Entry();
+            entry.texture = new Texture(Gdx.files.internal(imagePath));
+            entry.region = new TextureRegion(entry.texture);
+            entry.bytes = ResourceTracker.estimateBytes(entry.texture);
+            if(resourceTracker != null) resourceTracker.track(entry.texture, ResourceTracker.Kind.TEXTURE, entry.bytes);
+            liveBytes += entry.bytes;
+            entries.put(imagePath, entry);
+        }
+        entry.references++;
+        return entry.region;
+    }
+
+    /**
+     * Release one reference to an image, disposing the texture when it was the last one
+     * @param imagePath Path to the image
+     */
+    public void release(String imagePath){
+        Entry entry = entries.get(imagePath);
+        if(entry == null) throw new GdxRuntimeException("Texture not loaded: " + imagePath);
+        entry.references--;
+        if(entry.references > 0) return;
+        entries.remove(imagePath);
+        if(entry.texture == null) {
+            atlasEntries--;
+            if(atlasEntries == 0) disposeAtlas();
+            return;
+        }
+        disposeTexture(entry.texture);
+        liveBytes -= entry.bytes;
+    }
+
+    private void disposeTexture(Texture texture){
+        if(resourceTracker != null) resourceTracker.dispose(texture);
+        else texture.dispose();
+    }
+
+    private TextureRegion findAtlasRegion(String imagePath){
+        if(atlas == null) {
+            atlas = assetManager != null ? loadManagedAtlas() : new TextureAtlas(Gdx.files.internal(atlasPath));
+            atlasBytes = 0;
+            for(Texture texture : atlas.getTextures()){
+                atlasBytes += ResourceTracker.estimateBytes(texture);
+            }
+            liveBytes += atlasBytes;
+            if(resourceTracker != null) resourceTracker.track(atlas, ResourceTracker.Kind.ATLAS, atlasBytes);
+        }
+        String name = imagePath.substring(imagePath.lastIndexOf('/') + 1);
+        int extension = name.lastIndexOf('.');
+        if(extension > 0) name = name.substring(0, extension);
+        TextureRegion region = atlas.findRegion(name);
+        if(region == null) throw new GdxRuntimeException("Region not in " + atlasPath + ": " + name);
+        return region;
+    }
+
+    private TextureAtlas loadManagedAtlas(){
+        //Queued, loading or loaded all count, otherwise it was unloaded or never queued
+        if(!assetManager.contains(atlasPath)) assetManager.load(atlasPath, TextureAtlas.class);
+        return assetManager.finishLoadingAsset(atlasPath);
+    }
+
+    private void disposeAtlas(){
+        if(assetManager != null) {
+            if(resourceTracker != null) resourceTracker.untrack(atlas);
+            assetManager.unload(atlasPath);
+        }
+        else if(resourceTracker != null) resourceTracker.dispose(atlas);
+        else atlas.dispose();
+        atlas = null;
+        liveBytes -= atlasBytes;
+        atlasBytes = 0;
+    }
+
+    /**
+     * Dispose every texture still loaded, no matter how many references are left
+     */
+    @Override
+    public void dispose(){
+        for(Entry entry : entries.values()){
+            if(entry.texture != null) disposeTexture(entry.texture);
+        }
+        if(atlas != null) disposeAtlas();
+        entries.clear();
+        atlasEntries = 0;
+        liveBytes = 0;
+    }
+
+    /**
+     * Track every texture and atlas this cache loads and dispose them through the tracker, set
+     * before the first obtain()
+     * @param resourceTracker Tracker to register with, null to stop tracking
+     */
+    public void setResourceTracker(ResourceTracker resourceTracker) {
+        this.resourceTracker = resourceTracker;
+    }
+
+    public int getReferences(String imagePath) {
+        Entry entry = entries.get(imagePath);
+        return entry == null ? 0 : entry.references;
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    public int getLiveTextures() {
+        int textures = entries.size - atlasEntries;
+        return atlas == null ? textures : textures + atlas.getTextures().size;
+    }
+
+    public long getLiveBytes() {
+        return liveBytes;
+    }
+}
@@ -1,90 +1,82 @@
 package com.isak.main;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Sprite;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 
 public class TouchElement {
     private Vector3 touchPos;
+    private boolean isTouched;
     private Sprite touchSprite;
 
     private int touchImageSize = 100;
     private String touchImagePath = "cucumber-pixel.png";
-
-    private SpriteBatch batch;
-    private ShapeRenderer shapeRenderer;
+    private TextureCache textureCache;
+    private Color lineColor = new Color(119f / 255f, 178f / 255f, 85f / 255f, 1);
 
     /**
      * Constructor for the touch position object
      * @param touchImageSize Width and height in pixels
      * @param touchImagePath Path to the touch image
+     * @param textureCache Cache to get the shared texture from
      */
-    public TouchElement(int touchImageSize, String touchImagePath) {
+    public TouchElement(int touchImageSize, String touchImagePath, TextureCache textureCache) {
         this.touchImageSize = touchImageSize;
         this.touchImagePath = touchImagePath;
-
-        batch = new SpriteBatch();
-        shapeRenderer = new ShapeRenderer();
+        this.textureCache = textureCache;
         touchSetup();
     }
 
     private void touchSetup() {
         touchPos = new Vector3();
-        Texture touchTexture = new Texture(Gdx.files.internal(touchImagePath));
-        touchSprite = new Sprite(touchTexture);
+        touchSprite = new Sprite(textureCache.obtain(touchImagePath));
         touchSprite.setSize(touchImageSize, touchImageSize);
     }
 
     /**
-     * If Gdx.input.isTouched() then move touchPos to that position
-     */
-    public void moveTouchPosition(){
-        if(Gdx.input.isTouched()) {
-            touchPos.set(Gdx.input.getX(), Gdx.input.getY(), 0);
-            touchSprite.setPosition(touchPos.x - touchImageSize / 2f,
-                    touchPos.y - touchImageSize / 2f);
-        }
-    }
-
-
-    /**
-     * Set touchImage position to touchPos
+     * Move touchPos and the touch image to the touch position the simulation used last tick
+     * @param input Where the touch position comes from
      */
-    public void setTouchImagePosition(){
+    public void moveTouchPosition(InputSource input){
+        isTouched = input.isTouched();
+        touchPos.set(input.getTouchX(), input.getTouchY(), 0);
         touchSprite.setPosition(touchPos.x - touchImageSize / 2f,
                 touchPos.y - touchImageSize / 2f);
     }
 
     /**
-     * If Gdx.input.isTouched() then render touchSprite using SpriteBatch
+     * If the screen was touched then submit touchSprite to the sprite layer
+     * @param renderPipeline Pipeline to submit to
      */
-    public void render() {
-        if(Gdx.input.isTouched()) {
-            batch.begin();
-            touchSprite.draw(batch);
-            batch.end();
+    public void render(RenderPipeline renderPipeline) {
+        if(isTouched) {
+            renderPipeline.draw(touchSprite);
         }
     }
 
     /**
-     * If Gdx.input.isTouched() then draw a line between touchPos and given pos (player)
+     * If the screen was touched then submit a line between touchPos and given pos (player)
+     * to the debug layer
+     * @param renderPipeline Pipeline to submit to
      * @param playerPos Position to draw line to from touchPos
      */
-    public void drawLineBetweenTouchAndPlayer(Vector2 playerPos) {
-        if (Gdx.input.isTouched()) {
-            shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
-            Color green = new Color(119f / 255f, 178f / 255f, 85f / 255f, 1);
-            shapeRenderer.setColor(green);
+    public void drawLineBetweenTouchAndPlayer(RenderPipeline renderPipeline, Vector2 playerPos) {
+        if (isTouched) {
+            ShapeRenderer shapeRenderer = renderPipeline.debugShapes();
+            shapeRenderer.setColor(lineColor);
             shapeRenderer.line(touchPos.x, touchPos.y, playerPos.x, playerPos.y);
-            shapeRenderer.end();
         }
     }
 
+    /**
+     * Release the shared texture, the touch image can not be rendered after this
+     */
+    public void dispose(){
+        textureCache.release(touchImagePath);
+    }
+
     public Vector3 getTouchPos() {
         return touchPos;
     }
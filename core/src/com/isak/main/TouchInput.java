@@ -0,0 +1,193 @@
+package com.isak.main;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputAdapter;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.math.Vector3;
+
+public class TouchInput extends InputAdapter implements InputSource {
+
+    public static final int MAX_POINTERS = 10;
+
+    private static final byte DOWN = 0;
+    private static final byte DRAGGED = 1;
+    private static final byte UP = 2;
+
+    //Ring buffer of events that have not been applied yet, index i in every array is one event
+    private byte[] eventType;
+    private int[] eventPointer;
+    private float[] eventX;
+    private float[] eventY;
+    private long[] eventTime;
+    private int head;
+    private int size;
+
+    //Pointer state in world pixels, only changed by applying events
+    private boolean[] pointerDown;
+    private float[] pointerX;
+    private float[] pointerY;
+    private long[] pointerPressed;
+    private long pressCount;
+
+    //Events are converted to world pixels when they arrive, on the thread that owns the camera
+    private Camera camera;
+    private Vector3 unprojected;
+
+    //Snapshot for the current tick
+    private boolean[] snapshotDown;
+    private float[] snapshotX;
+    private float[] snapshotY;
+    private int activePointer = -1;
+    private float touchX;
+    private float touchY;
+
+    /**
+     * Constructor for event driven touch input. Touch events are stored with their time in a
+     * preallocated queue and applied tick by tick, so every tick sees one consistent state
+     * and events between two ticks are not lost or merged into the wrong tick. Events can be
+     * queued on one thread and snapshots taken on another
+     * @param camera Camera used to convert screen to world positions
+     * @param queueCapacity Number of events that can wait for the next tick
+     */
+    public TouchInput(Camera camera, int queueCapacity){
+        this.camera = camera;
+        eventType = new byte[queueCapacity];
+        eventPointer = new int[queueCapacity];
+        eventX = new float[queueCapacity];
+        eventY = new float[queueCapacity];
+        eventTime = new long[queueCapacity];
+        pointerDown = new boolean[MAX_POINTERS];
+        pointerX = new float[MAX_POINTERS];
+        pointerY = new float[MAX_POINTERS];
+        pointerPressed = new long[MAX_POINTERS];
+        unprojected = new Vector3();
+        snapshotDown = new boolean[MAX_POINTERS];
+        snapshotX = new float[MAX_POINTERS];
+        snapshotY = new float[MAX_POINTERS];
+    }
+
+    @Override
+    public boolean touchDown(int screenX, int screenY, int pointer, int button) {
+        return queue(DOWN, screenX, screenY, pointer);
+    }
+
+    @Override
+    public boolean touchDragged(int screenX, int screenY, int pointer) {
+        return queue(DRAGGED, screenX, screenY, pointer);
+    }
+
+    @Override
+    public boolean touchUp(int screenX, int screenY, int pointer, int button) {
+        return queue(UP, screenX, screenY, pointer);
+    }
+
+    private synchronized boolean queue(byte type, int screenX, int screenY, int pointer){
+        if(pointer >= MAX_POINTERS) return false;
+        camera.unproject(unprojected.set(screenX, screenY, 0));
+        //A full queue applies its oldest event early instead of dropping it, so no press or
+        //release is ever lost
+        if(size == eventType.length) applyOldest();
+        int i = (head + size) % eventType.length;
+        eventType[i] = type;
+        eventPointer[i] = pointer;
+        eventX[i] = unprojected.x;
+        eventY[i] = unprojected.y;
+        eventTime[i] = Gdx.input.getCurrentEventTime();
+        size++;
+        return true;
+    }
+
+    private void applyOldest(){
+        int pointer = eventPointer[head];
+        switch (eventType[head]) {
+            case DOWN:
+                pointerDown[pointer] = true;
+                pointerPressed[pointer] = ++pressCount;
+                break;
+            case UP:
+                pointerDown[pointer] = false;
+                break;
+            default:
+                break;
+        }
+        pointerX[pointer] = eventX[head];
+        pointerY[pointer] = eventY[head];
+        head = (head + 1) % eventType.length;
+        size--;
+    }
+
+    /**
+     * Apply every event that happened up to a time and take the snapshot the next tick reads.
+     * The touch position is the most recently pressed pointer that is still down, so a second
+     * finger takes over and lifting it gives control back to the first
+     * @param time Time of the tick in System.nanoTime() nanoseconds
+     */
+    public synchronized void snapshot(long time){
+        while(size > 0 && eventTime[head] <= time){
+            applyOldest();
+        }
+        activePointer = -1;
+        for (int pointer = 0; pointer < MAX_POINTERS; pointer++){
+            snapshotDown[pointer] = pointerDown[pointer];
+            if(!pointerDown[pointer]) continue;
+            snapshotX[pointer] = pointerX[pointer];
+            snapshotY[pointer] = pointerY[pointer];
+            if(activePointer < 0 || pointerPressed[pointer] > pointerPressed[activePointer]) {
+                activePointer = pointer;
+            }
+        }
+        //Keep the last position when nothing is touched
+        if(activePointer >= 0) {
+            touchX = snapshotX[activePointer];
+            touchY = snapshotY[activePointer];
+        }
+    }
+
+    /**
+     * Forget every queued event and pressed pointer
+     */
+    public synchronized void clear(){
+        head = 0;
+        size = 0;
+        activePointer = -1;
+        for (int pointer = 0; pointer < MAX_POINTERS; pointer++){
+            pointerDown[pointer] = false;
+            snapshotDown[pointer] = false;
+        }
+    }
+
+    @Override
+    public boolean isTouched() {
+        return activePointer >= 0;
+    }
+
+    @Override
+    public float getTouchX() {
+        return touchX;
+    }
+
+    @Override
+    public float getTouchY() {
+        return touchY;
+    }
+
+    public boolean isTouched(int pointer) {
+        return snapshotDown[pointer];
+    }
+
+    public float getTouchX(int pointer) {
+        return snapshotX[pointer];
+    }
+
+    public float getTouchY(int pointer) {
+        return snapshotY[pointer];
+    }
+
+    public int getActivePointer() {
+        return activePointer;
+    }
+
+    public synchronized int getQueuedEvents() {
+        return size;
+    }
+}
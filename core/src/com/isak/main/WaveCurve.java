@@ -0,0 +1,128 @@
+package com.isak.main;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+
+public class WaveCurve {
+
+    private float[] times;
+    private int[] enemies;
+    private float[] speeds;
+
+    /**
+     * Constructor for a difficulty curve over a round: how many enemies fly at once and how fast
+     * new enemies are at every point in time. Between two points both are interpolated, after
+     * the last point they stay at its values
+     * @param times Time of every point in seconds since the round started, increasing
+     * @param enemies Number of enemies at every point
+     * @param speeds Speed of new enemies at every point, in pixels per reference tick
+     */
+    public WaveCurve(float[] times, int[] enemies, float[] speeds){
+        if(times.length == 0 || times.length != enemies.length || times.length != speeds.length) {
+            throw new GdxRuntimeException("A wave curve needs the same number of times, enemies and speeds");
+        }
+        for (int i = 1; i < times.length; i++){
+            if(times[i] <= times[i - 1]) throw new GdxRuntimeException("Wave times must increase");
+        }
+        this.times = times;
+        this.enemies = enemies;
+        this.speeds = speeds;
+    }
+
+    /**
+     * Read a curve from a json file like {"waves": [{"time": 0, "enemies": 4, "speed": 4}, ...]}
+     * @param file The json file
+     * @return The curve
+     */
+    public static WaveCurve load(FileHandle file){
+        JsonValue waves = new JsonReader().parse(file).get("waves");
+        if(waves == null) throw new GdxRuntimeException(file + " has no waves");
+        float[] times = new float[waves.size];
+        int[] enemies = new int[waves.size];
+        float[] speeds = new float[waves.size];
+        int i = 0;
+        for(JsonValue wave = waves.child; wave != null; wave = wave.next, i++){
+            times[i] = wave.getFloat("time");
+            enemies[i] = wave.getInt("enemies");
+            speeds[i] = wave.getFloat("speed");
+        }
+        return new WaveCurve(times, enemies, speeds);
+    }
+
+    /**
+     * @param time Seconds since the round started
+     * @return Number of enemies that should be flying
+     */
+    public int getEnemies(float time){
+        int i = findSegment(time);
+        if(i == times.length - 1) return enemies[i];
+        return (int) MathUtils.lerp(enemies[i], enemies[i + 1], progress(i, time));
+    }
+
+    /**
+     * @param time Seconds since the round started
+     * @return Speed of new enemies in pixels per reference tick
+     */
+    public float getSpeed(float time){
+        int i = findSegment(time);
+        if(i == times.length - 1) return speeds[i];
+        return MathUtils.lerp(speeds[i], speeds[i + 1], progress(i, time));
+    }
+
+    //Last point at or before the time, the first point before the curve starts
+    private int findSegment(float time){
+        int i = 0;
+        while(i < times.length - 1 && times[i + 1] <= time) i++;
+        return i;
+    }
+
+    private float progress(int i, float time){
+        return MathUtils.clamp((time - times[i]) / (times[i + 1] - times[i]), 0, 1);
+    }
+
+    /**
+     * Copy the curve with the enemy counts and speeds of every point scaled, the times stay
+     * @param enemyScale Factor for the enemy counts, rounded and never below 1
+     * @param speedScale Factor for the speeds
+     * @return The scaled copy
+     */
+    public WaveCurve scaled(float enemyScale, float speedScale){
+        int[] scaledEnemies = new int[enemies.length];
+        float[] scaledSpeeds = new float[speeds.length];
+        for (int i = 0; i < times.length; i++){
+            scaledEnemies[i] = Math.max(1, Math.round(enemies[i] * enemyScale));
+            scaledSpeeds[i] = speeds[i] * speedScale;
+        }
+        return new WaveCurve(times.clone(), scaledEnemies, scaledSpeeds);
+    }
+
+    /**
+     * @return The most enemies at any point of the curve
+     */
+    public int getMostEnemies(){
+        int most = 0;
+        for(int count : enemies){
+            most = Math.max(most, count);
+        }
+        return most;
+    }
+
+    public int getPointCount() {
+        return times.length;
+    }
+
+    public float getPointTime(int point) {
+        return times[point];
+    }
+
+    public int getPointEnemies(int point) {
+        return enemies[point];
+    }
+
+    public float getPointSpeed(int point) {
+        return speeds[point];
+    }
+}
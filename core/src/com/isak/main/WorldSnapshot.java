@@ -0,0 +1,139 @@
+package com.isak.main;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+
+import java.util.Arrays;
+
+public class WorldSnapshot implements InputSource {
+
+    //Player
+    float playerX;
+    float playerY;
+    float playerPrevX;
+    float playerPrevY;
+    float playerRotation;
+    float playerRadius;
+
+    //Enemies, index i in every array is one enemy
+    float[] enemyX;
+    float[] enemyY;
+    float[] enemyPrevX;
+    float[] enemyPrevY;
+    float[] enemyRotation;
+    float enemyRadius;
+    int enemyCount;
+
+    //Touch the tick was simulated with
+    boolean touched;
+    float touchX;
+    float touchY;
+
+    int score;
+    boolean isPlayerAlive;
+    long tickCount;
+    long time;
+
+    /**
+     * Constructor for a copy of everything the renderer needs from a world after a tick, so the
+     * world can be stepped on another thread while this copy is drawn
+     * @param capacity Number of enemies to make room for up front
+     */
+    public WorldSnapshot(int capacity){
+        capacity = Math.max(capacity, 1);
+        enemyX = new float[capacity];
+        enemyY = new float[capacity];
+        enemyPrevX = new float[capacity];
+        enemyPrevY = new float[capacity];
+        enemyRotation = new float[capacity];
+    }
+
+    /**
+     * Copy the state of a world
+     * @param world World to copy
+     * @param input Input the last tick was simulated with
+     * @param time When the tick was simulated, in System.nanoTime() nanoseconds
+     */
+    public void capture(GameWorld world, InputSource input, long time){
+        Player player = world.getPlayer();
+        playerX = player.getPlayerPos().x;
+        playerY = player.getPlayerPos().y;
+        playerPrevX = player.getPlayerPrevPos().x;
+        playerPrevY = player.getPlayerPrevPos().y;
+        playerRotation = player.getRotation();
+        playerRadius = player.getPlayerRadius();
+
+        EnemySpawner enemySpawner = world.getEnemySpawner();
+        int count = enemySpawner.getCurrentNumberEnemies();
+        if(count > enemyX.length) grow(Math.max(count, enemyX.length * 2));
+        enemyCount = enemySpawner.copyEnemies(enemyX, enemyY, enemyPrevX, enemyPrevY, enemyRotation);
+        enemyRadius = enemySpawner.getEnemyRadius();
+
+        touched = input.isTouched();
+        touchX = input.getTouchX();
+        touchY = input.getTouchY();
+        score = world.getScore();
+        isPlayerAlive = world.isPlayerAlive();
+        tickCount = world.getTickCount();
+        this.time = time;
+    }
+
+    /**
+     * Submit the player and every enemy to the sprite layer
+     * @param renderPipeline Pipeline to submit to
+     * @param playerRegion Region to draw the player with
+     * @param enemyRegion Region to draw every enemy with
+     * @param alpha Interpolation between previous (0) and current (1) tick position
+     */
+    public void render(RenderPipeline renderPipeline, TextureRegion playerRegion,
+                       TextureRegion enemyRegion, float alpha){
+        float r = playerRadius;
+        renderPipeline.draw(playerRegion, MathUtils.lerp(playerPrevX, playerX, alpha) - r,
+                MathUtils.lerp(playerPrevY, playerY, alpha) - r, r, r, 2*r, 2*r, playerRotation);
+        r = enemyRadius;
+        for (int i = 0; i < enemyCount; i++){
+            float x = enemyPrevX[i] + (enemyX[i] - enemyPrevX[i]) * alpha;
+            float y = enemyPrevY[i] + (enemyY[i] - enemyPrevY[i]) * alpha;
+            renderPipeline.draw(enemyRegion, x - r, y - r, r, r, 2*r, 2*r, enemyRotation[i]);
+        }
+    }
+
+    private void grow(int capacity){
+        enemyX = Arrays.copyOf(enemyX, capacity);
+        enemyY = Arrays.copyOf(enemyY, capacity);
+        enemyPrevX = Arrays.copyOf(enemyPrevX, capacity);
+        enemyPrevY = Arrays.copyOf(enemyPrevY, capacity);
+        enemyRotation = Arrays.copyOf(enemyRotation, capacity);
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public boolean isPlayerAlive() {
+        return isPlayerAlive;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    @Override
+    public boolean isTouched() {
+        return touched;
+    }
+
+    @Override
+    public float getTouchX() {
+        return touchX;
+    }
+
+    @Override
+    public float getTouchY() {
+        return touchY;
+    }
+}
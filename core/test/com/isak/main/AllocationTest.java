@@ -0,0 +1,203 @@
+package com.isak.main;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs the game headless for a number of frames after a warm-up and fails if any of the
+ * measured rounds of steady-state frames allocated anything on the heap. A frame is the
+ * simulation ticks plus the render path of the game: the touch element, player and enemy
+ * sprites and every debug channel through the RenderPipeline, and the HUD score texts
+ */
+public class AllocationTest {
+
+    private static final String ATLAS_PATH = "sprites.atlas";
+    private static final int FRAMES = 20000;
+    private static final int ROUNDS = 3;
+    private static final int MAX_WARM_UP_ROUNDS = 10;
+    //Looked up once, finding the bean goes through lambdas that allocate on every call
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    //Where the frame loop writes what it drew, so the JIT cannot drop any of it
+    private static volatile int sink;
+
+    private static CollisionMaskCache maskCache;
+    private static WaveCurve waves;
+    private static TextureCache textureCache;
+    private static RenderPipeline renderPipeline;
+    private static BitmapFont font;
+
+    @BeforeClass
+    public static void setUp() {
+        HeadlessGdx.start();
+        maskCache = new CollisionMaskCache(Gdx.files.internal("sprites.masks"));
+        waves = WaveCurve.load(Gdx.files.internal("waves.json"));
+        ResourceTracker tracker = new ResourceTracker();
+        textureCache = new TextureCache(ATLAS_PATH);
+        textureCache.setResourceTracker(tracker);
+        renderPipeline = new RenderPipeline(tracker);
+        font = new BitmapFont();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        font.dispose();
+        renderPipeline.dispose();
+        textureCache.dispose();
+        HeadlessGdx.stop();
+    }
+
+    @Test
+    public void swarmWithFewEnemies() {
+        assertNoAllocations(new FrameLoop(true, 5, null));
+    }
+
+    @Test
+    public void swarmWithManyEnemies() {
+        assertNoAllocations(new FrameLoop(true, 500, null));
+    }
+
+    @Test
+    public void swarmWithWaves() {
+        assertNoAllocations(new FrameLoop(true, waves.getMostEnemies(), waves));
+    }
+
+    @Test
+    public void objectsWithFewEnemies() {
+        assertNoAllocations(new FrameLoop(false, 5, null));
+    }
+
+    @Test
+    public void objectsWithManyEnemies() {
+        assertNoAllocations(new FrameLoop(false, 500, null));
+    }
+
+    @Test
+    public void objectsWithWaves() {
+        assertNoAllocations(new FrameLoop(false, waves.getMostEnemies(), waves));
+    }
+
+    private static void assertNoAllocations(FrameLoop loop) {
+        try {
+            //Reading the counter can allocate itself, that much is taken off every round
+            long start = allocatedBytes();
+            long overhead = allocatedBytes() - start;
+            //Warm up until a whole round allocates nothing, so pools, scratch arrays, glyph caches
+            //and the JIT have settled. Deoptimizing and recompiling allocates a little on this
+            //thread for a while, a real per-frame allocation keeps every round from getting there
+            int warmUpRounds = 0;
+            long bytes;
+            do {
+                long before = allocatedBytes();
+                sink = loop.run(FRAMES);
+                bytes = allocatedBytes() - before - overhead;
+                warmUpRounds++;
+            } while (bytes != 0 && warmUpRounds < MAX_WARM_UP_ROUNDS);
+            //Every measured round has to be clean on its own
+            for (int round = 0; round < ROUNDS; round++){
+                long before = allocatedBytes();
+                sink = loop.run(FRAMES);
+                bytes = allocatedBytes() - before - overhead;
+                assertEquals("Bytes allocated in round " + round + " of " + FRAMES + " frames after "
+                        + warmUpRounds + " warm-up rounds", 0, bytes);
+            }
+        } finally {
+            loop.dispose();
+        }
+    }
+
+    private static long allocatedBytes() {
+        return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * One world with everything FirstGame draws it with, stepped and drawn the way
+     * FirstGame.render does
+     */
+    private static class FrameLoop {
+
+        private GameWorld world;
+        private FixedTimestep timestep;
+        private OrthographicCamera camera;
+        private TouchElement touchElement;
+        private DebugDraw debugDraw;
+        private GlyphLayout layout;
+        private ScoreText scoreText;
+        private ScoreText highScoreText;
+        private BotInput bot;
+        private int highScore;
+
+        FrameLoop(boolean swarmMode, int enemyCount, WaveCurve waves) {
+            GameConfig config = new GameConfig();
+            config.enemySwarmMode = swarmMode;
+            config.maxNumberEnemies = enemyCount;
+            config.enemyCollisions = true;
+            config.enemySeekShare = 0.3f;
+            config.enemyFlockShare = 0.3f;
+            config.waves = waves;
+            bot = new BotInput(BotInput.Strategy.WANDER, 0);
+            world = new GameWorld(1600, 900, config, bot, 1, textureCache);
+            world.setCollisionMasks(maskCache);
+            bot.setWorld(world);
+            world.reset();
+            timestep = new FixedTimestep(60, 0.25f);
+            renderPipeline.setSpriteCapacity(enemyCount + 2);
+            camera = new OrthographicCamera();
+            camera.setToOrtho(false, world.getWorldWidth(), world.getWorldHeight());
+            touchElement = new TouchElement(100, "cucumber-pixel.png", textureCache);
+            debugDraw = new DebugDraw(15);
+            //Every channel, the debug layer is part of the frame when it is turned on
+            debugDraw.setEnabledChannels(~0);
+            layout = new GlyphLayout();
+            scoreText = new ScoreText("Score: ");
+            highScoreText = new ScoreText("High Score: ");
+        }
+
+        int run(int frames) {
+            int checksum = 0;
+            for (int frame = 0; frame < frames; frame++){
+                if(!world.isPlayerAlive()) world.reset();
+                int ticks = timestep.advance(1/60f);
+                for (int tick = 0; tick < ticks; tick++){
+                    world.step(timestep.getTickLength());
+                }
+                camera.update();
+                touchElement.moveTouchPosition(bot);
+                float alpha = timestep.getAlpha();
+                renderPipeline.beginFrame(camera.combined);
+                touchElement.render(renderPipeline);
+                world.getPlayer().render(renderPipeline, alpha);
+                world.getEnemySpawner().renderEnemies(renderPipeline, alpha);
+                renderPipeline.flush();
+                debugDraw.draw(renderPipeline, world, touchElement);
+                renderPipeline.flush();
+                SpriteBatch batch = renderPipeline.hud();
+                font.draw(batch, scoreText.get(world.getScore()), 50, 870);
+                highScore = Math.max(highScore, world.getScore());
+                CharSequence highScoreString = highScoreText.get(highScore);
+                layout.setText(font, highScoreString);
+                font.draw(batch, highScoreString, 1550 - layout.width, 870);
+                renderPipeline.endFrame();
+                checksum += renderPipeline.getRenderCalls();
+            }
+            return checksum;
+        }
+
+        void dispose() {
+            touchElement.dispose();
+            world.dispose();
+        }
+    }
+}
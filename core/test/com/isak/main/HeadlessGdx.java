@@ -0,0 +1,87 @@
+package com.isak.main;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.FixedValue;
+import net.bytebuddy.implementation.MethodDelegation;
+import net.bytebuddy.implementation.StubMethod;
+
+import java.nio.IntBuffer;
+
+import static net.bytebuddy.matcher.ElementMatchers.isDeclaredBy;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.returns;
+
+/**
+ * Headless application for the tests that load textures or draw, with a mocked GL. The mock is
+ * generated so every call returns right away without allocating, which lets the tests measure
+ * only the game's own allocations. Ids and locations are 1, every shader compiles and every
+ * program links. The tests run from the assets folder so the sprite atlas is found
+ */
+public class HeadlessGdx {
+
+    private static HeadlessApplication application;
+
+    /**
+     * Start the application, texture decoding needs its natives and files
+     */
+    public static void start() {
+        application = new HeadlessApplication(new ApplicationAdapter() {
+        }, new HeadlessApplicationConfiguration());
+        Gdx.gl = Gdx.gl20 = createGl();
+    }
+
+    /**
+     * Stop the application started by start()
+     */
+    public static void stop() {
+        application.exit();
+        application = null;
+        Gdx.gl = Gdx.gl20 = null;
+    }
+
+    private static GL20 createGl() {
+        //Later matchers win, so the specific methods come after the catch-all
+        try {
+            return new ByteBuddy()
+                    .subclass(Object.class)
+                    .implement(GL20.class)
+                    .method(isDeclaredBy(GL20.class)).intercept(StubMethod.INSTANCE)
+                    .method(returns(int.class)).intercept(FixedValue.value(1))
+                    .method(returns(String.class)).intercept(FixedValue.value(""))
+                    .method(named("glGetShaderiv").or(named("glGetProgramiv")))
+                    .intercept(MethodDelegation.to(Status.class))
+                    .make()
+                    .load(HeadlessGdx.class.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+                    .getLoaded()
+                    .asSubclass(GL20.class)
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new GdxRuntimeException("Could not create the GL mock", e);
+        }
+    }
+
+    /**
+     * Answers glGetShaderiv and glGetProgramiv of the GL mock
+     */
+    public static class Status {
+
+        /**
+         * Report every shader as compiled and every program as linked
+         * @param object Shader or program
+         * @param name Parameter asked for
+         * @param params Where the value goes
+         */
+        public static void get(int object, int name, IntBuffer params) {
+            if(name == GL20.GL_COMPILE_STATUS || name == GL20.GL_LINK_STATUS) params.put(params.position(), 1);
+        }
+    }
+}
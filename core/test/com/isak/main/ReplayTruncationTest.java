@@ -0,0 +1,105 @@
+package com.isak.main;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Records bot rounds and reads them back cut off at every byte, like a replay left behind by a
+ * crash between two chunk writes. Fails if a cut off replay throws anywhere but in the header,
+ * or plays back other input than the whole replay did for the ticks it has
+ */
+public class ReplayTruncationTest {
+
+    private static final int MAX_TICKS = 3000;
+    private static final float DANGER_RADIUS = 200;
+    private static final int SEEDS = 3;
+
+    @Test
+    public void wanderingRounds() throws IOException {
+        for (int seed = 1; seed <= SEEDS; seed++){
+            assertPlaysUntilCut(record(BotInput.Strategy.WANDER, seed));
+        }
+    }
+
+    @Test
+    public void evadingRounds() throws IOException {
+        for (int seed = 1; seed <= SEEDS; seed++){
+            assertPlaysUntilCut(record(BotInput.Strategy.EVADE, seed));
+        }
+    }
+
+    private static void assertPlaysUntilCut(byte[] replay) throws IOException {
+        //Input of every tick of the whole replay, what every cut off copy has to match
+        ByteArrayInputStream wholeIn = new ByteArrayInputStream(replay);
+        ReplayReader whole = new ReplayReader(wholeIn);
+        int headerLength = replay.length - wholeIn.available();
+        boolean[] touched = new boolean[MAX_TICKS];
+        float[] touchX = new float[MAX_TICKS];
+        float[] touchY = new float[MAX_TICKS];
+        int wholeTicks = 0;
+        while(whole.tick()) {
+            touched[wholeTicks] = whole.isTouched();
+            touchX[wholeTicks] = whole.getTouchX();
+            touchY[wholeTicks] = whole.getTouchY();
+            wholeTicks++;
+        }
+        assertTrue("The whole replay has no end marker", whole.isComplete());
+
+        int lastTicks = 0;
+        for (int length = 0; length < replay.length; length++){
+            ReplayReader reader;
+            try {
+                reader = new ReplayReader(new ByteArrayInputStream(replay, 0, length));
+            } catch (IOException e) {
+                if(length >= headerLength) fail("Cut at " + length + ": header failed after it was whole: " + e);
+                continue;
+            }
+            int ticks = 0;
+            try {
+                while(reader.tick()) {
+                    String where = "Cut at " + length + ", tick " + ticks;
+                    assertTrue(where + ": more ticks than the whole replay", ticks < wholeTicks);
+                    assertEquals(where + ": touched", touched[ticks], reader.isTouched());
+                    assertEquals(where + ": touch x", touchX[ticks], reader.getTouchX(), 0);
+                    assertEquals(where + ": touch y", touchY[ticks], reader.getTouchY(), 0);
+                    ticks++;
+                }
+            } catch (RuntimeException e) {
+                throw new AssertionError("Cut at " + length + ": " + e, e);
+            }
+            assertFalse("Cut at " + length + ": reports the end marker", reader.isComplete());
+            //A longer piece of the same replay never plays fewer ticks
+            assertTrue("Cut at " + length + ": " + ticks + " ticks, fewer than a shorter cut",
+                    ticks >= lastTicks);
+            lastTicks = ticks;
+        }
+    }
+
+    private static byte[] record(BotInput.Strategy strategy, long seed) {
+        BotInput bot = new BotInput(strategy, DANGER_RADIUS);
+        //Small chunks so the recording is drained many times like a long round would be
+        ReplayRecorder recorder = new ReplayRecorder(bot, 256, 4);
+        GameConfig config = new GameConfig();
+        GameWorld world = new GameWorld(1600, 900, config, recorder, 1, null);
+        bot.setWorld(world);
+        world.reset(seed);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recorder.begin(out, seed, 1/60f, world.getWorldWidth(), world.getWorldHeight(), config);
+        while(world.isPlayerAlive() && world.getTickCount() < MAX_TICKS) {
+            recorder.tick();
+            world.step(1/60f);
+        }
+        recorder.end(world.getScore());
+        recorder.dispose();
+        world.dispose();
+        return out.toByteArray();
+    }
+}
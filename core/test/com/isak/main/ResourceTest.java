@@ -0,0 +1,80 @@
+package com.isak.main;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs thousands of spawn/despawn cycles, round resets and world rebuilds headless with real
+ * textures and fails if the live resource counts, estimated native bytes or texture references
+ * grow, or if anything is left after everything is disposed
+ */
+public class ResourceTest {
+
+    private static final String ATLAS_PATH = "sprites.atlas";
+    private static final int TICKS = 20000;
+
+    @BeforeClass
+    public static void setUp() {
+        HeadlessGdx.start();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        HeadlessGdx.stop();
+    }
+
+    @Test
+    public void swarmMode() {
+        assertNoLeaks(true);
+    }
+
+    @Test
+    public void objectMode() {
+        assertNoLeaks(false);
+    }
+
+    private static void assertNoLeaks(boolean swarmMode) {
+        GameConfig config = new GameConfig();
+        config.enemySwarmMode = swarmMode;
+        config.maxNumberEnemies = 500;
+        ResourceTracker tracker = new ResourceTracker();
+        TextureCache textureCache = new TextureCache(ATLAS_PATH);
+        textureCache.setResourceTracker(tracker);
+        //Held for the whole run like the touch element, so the atlas stays loaded
+        textureCache.obtain(config.playerImagePath);
+        BotInput bot = new BotInput(BotInput.Strategy.WANDER, 0);
+        GameWorld world = new GameWorld(1600, 900, config, bot, 1, textureCache);
+        bot.setWorld(world);
+        world.reset();
+
+        int liveCount = tracker.getLiveCount();
+        long liveBytes = tracker.getLiveBytes();
+        int playerReferences = textureCache.getReferences(config.playerImagePath);
+        int enemyReferences = textureCache.getReferences(config.enemyImagePath);
+        for (int tick = 0; tick < TICKS; tick++){
+            if(!world.isPlayerAlive()) world.reset();
+            world.step(FixedTimestep.REFERENCE_TICK);
+            //A second world created and disposed next to the first, like a replay being watched
+            if(tick % 1000 == 999) {
+                GameWorld replayWorld = new GameWorld(1600, 900, config, bot, tick, textureCache);
+                replayWorld.reset();
+                replayWorld.step(FixedTimestep.REFERENCE_TICK);
+                replayWorld.dispose();
+            }
+            assertEquals("Live resources on tick " + tick, liveCount, tracker.getLiveCount());
+            assertEquals("Live bytes on tick " + tick, liveBytes, tracker.getLiveBytes());
+            assertEquals("Player texture references on tick " + tick, playerReferences,
+                    textureCache.getReferences(config.playerImagePath));
+            assertTrue("Enemy texture references grew on tick " + tick,
+                    textureCache.getReferences(config.enemyImagePath) <= enemyReferences);
+        }
+        world.dispose();
+        textureCache.release(config.playerImagePath);
+        textureCache.dispose();
+        assertEquals("Resources left after dispose", 0, tracker.getLiveCount());
+    }
+}
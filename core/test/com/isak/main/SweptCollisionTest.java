@@ -0,0 +1,63 @@
+package com.isak.main;
+
+import com.badlogic.gdx.math.Circle;
+import com.badlogic.gdx.math.RandomXS128;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Sends one enemy so fast across a standing player that it passes it within a single tick, in
+ * object mode, and fails if the swept test misses it or the enemy lost the previous position it
+ * needs for the swept test and render interpolation
+ */
+public class SweptCollisionTest {
+
+    private static final float DELTA = 1/60f;
+    private static final float PLAYER_X = 500;
+    private static final float PLAYER_Y = 450;
+    private static final float START_X = 400;
+    //Pixels per reference tick, the enemy starts left of the player and ends far right of it
+    private static final float SPEED = 300;
+
+    @Test
+    public void withoutEnemyCollisions() {
+        assertFastEnemyHits(false);
+    }
+
+    @Test
+    public void withEnemyCollisions() {
+        assertFastEnemyHits(true);
+    }
+
+    private static void assertFastEnemyHits(boolean enemyCollisions) {
+        GameConfig config = new GameConfig();
+        EnemySpawner enemySpawner = new EnemySpawner(config.enemyStartSpeed,
+                config.enemySpeedIncrease, config.enemyMaxSpeed, 1, config.enemyRadius,
+                config.enemyImagePath, null);
+        enemySpawner.setWorldSize(1600, 900);
+        enemySpawner.setRandom(new RandomXS128(1));
+        enemySpawner.setSwarmMode(false);
+        enemySpawner.setEnemyCollisions(enemyCollisions);
+        enemySpawner.spawnEnemy();
+        enemySpawner.getEnemy(0).init(START_X, PLAYER_Y, SPEED, 0);
+
+        //One tick in the order GameWorld runs it
+        enemySpawner.moveEnemies(DELTA);
+        enemySpawner.updateEnemyCollisions();
+        Circle player = new Circle(PLAYER_X, PLAYER_Y, config.playerRadius);
+        int hit = enemySpawner.findEnemyHit(PLAYER_X, PLAYER_Y, player, null, 0);
+
+        float[] x = new float[1];
+        float[] y = new float[1];
+        float[] prevX = new float[1];
+        float[] prevY = new float[1];
+        float[] rotation = new float[1];
+        enemySpawner.copyEnemies(x, y, prevX, prevY, rotation);
+        enemySpawner.dispose();
+        assertEquals("Enemy hit", 0, hit);
+        assertEquals("Previous x", START_X, prevX[0], 0);
+        assertEquals("Current x", START_X + SPEED, x[0], 0);
+    }
+}
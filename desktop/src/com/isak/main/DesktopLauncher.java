@@ -4,6 +4,8 @@ import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import com.isak.main.FirstGame;
 
+import java.util.Arrays;
+
 // Please note that on macOS your application needs to be started with the -XstartOnFirstThread JVM argument
 public class DesktopLauncher {
 	public static void main (String[] arg) {
@@ -11,6 +13,10 @@ public class DesktopLauncher {
 		config.setForegroundFPS(60);
 		config.setTitle("FirstGame");
 		config.setWindowedMode(1600, 900);
-		new Lwjgl3Application(new FirstGame(), config);
+		//--threaded-simulation steps the game on its own thread
+		boolean threadedSimulation = Arrays.asList(arg).contains("--threaded-simulation");
+		//--profile counts the GL calls of every frame and writes the profile on exit
+		boolean profileCapture = Arrays.asList(arg).contains("--profile");
+		new Lwjgl3Application(new FirstGame(threadedSimulation, profileCapture), config);
 	}
 }